@@ -0,0 +1,125 @@
+package com.kunbu.java.basic.base.string;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AsciiCase和JDK大小写方法的对比
+ *
+ * input：
+ *      ascii   订单号一类的纯ASCII标识符
+ *      latin1  带é/ü的西欧文字，走查表
+ *      cjk     含"昆布"，回退到JDK
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-21 11:00
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsciiCaseBenchmark {
+
+    @Param({"ascii", "latin1", "cjk"})
+    public String input;
+
+    private String text;
+    private String other;
+    private String needle;
+    private byte[] textBytes;
+    private byte[] otherBytes;
+    private byte[] needleBytes;
+
+    @Setup
+    public void setup() {
+        String word;
+        switch (input) {
+            case "ascii":
+                word = "kunbu-order-";
+                break;
+            case "latin1":
+                word = "café-müller-";
+                break;
+            default:
+                word = "昆布-kunbu-";
+                break;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append(word).append(i);
+        }
+        text = sb.toString();
+        other = text.toUpperCase(Locale.ROOT);
+        needle = (word + 7).toUpperCase(Locale.ROOT);
+        textBytes = text.getBytes(StandardCharsets.UTF_8);
+        otherBytes = other.getBytes(StandardCharsets.UTF_8);
+        needleBytes = needle.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String jdkToUpperCase() {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public String asciiToUpperCase() {
+        return AsciiCase.toUpperCase(text);
+    }
+
+    @Benchmark
+    public boolean jdkEqualsIgnoreCase() {
+        return text.equalsIgnoreCase(other);
+    }
+
+    @Benchmark
+    public boolean asciiEqualsIgnoreCase() {
+        return AsciiCase.equalsIgnoreCase(text, other);
+    }
+
+    /**
+     * 常见写法：两边都转小写再indexOf
+     */
+    @Benchmark
+    public int jdkIndexOfIgnoreCase() {
+        return text.toLowerCase(Locale.ROOT).indexOf(needle.toLowerCase(Locale.ROOT));
+    }
+
+    @Benchmark
+    public int asciiIndexOfIgnoreCase() {
+        return AsciiCase.indexOfIgnoreCase(text, needle, 0);
+    }
+
+    /**
+     * 原始字节先解码再比较
+     */
+    @Benchmark
+    public boolean jdkBytesEqualsIgnoreCase() {
+        return new String(textBytes, StandardCharsets.UTF_8).equalsIgnoreCase(new String(otherBytes, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public boolean asciiBytesEqualsIgnoreCase() {
+        return AsciiCase.equalsIgnoreCase(textBytes, 0, textBytes.length, otherBytes, 0, otherBytes.length);
+    }
+
+    @Benchmark
+    public int asciiBytesIndexOfIgnoreCase() {
+        return AsciiCase.indexOfIgnoreCase(textBytes, 0, textBytes.length, needleBytes);
+    }
+}
@@ -0,0 +1,168 @@
+package com.kunbu.java.basic.base.string;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CompactString和String的吞吐对比，内存对比见CompactString.main
+ *
+ * 意义在JDK8上（String是char[]），JDK9+的String本身已经是紧凑的，对比时注意运行的JDK版本；
+ * 创建时的分配看 -prof gc 的 gc.alloc.rate.norm
+ *
+ *      java -jar benchmarks.jar CompactStringBenchmark -prof gc
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-23 11:00
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactStringBenchmark {
+
+    private static final int KEYS = 1024;
+
+    @Param({"ascii", "cjk"})
+    public String input;
+
+    private String[] strings;
+    private CompactString[] compacts;
+    private String[] probes;
+    private CompactString[] compactProbes;
+    private Map<String, Integer> stringMap;
+    private Map<CompactString, Integer> compactMap;
+
+    @Setup
+    public void setup() {
+        String prefix = "ascii".equals(input) ? "order-code-" : "昆布订单-";
+        strings = new String[KEYS];
+        compacts = new CompactString[KEYS];
+        probes = new String[KEYS];
+        compactProbes = new CompactString[KEYS];
+        stringMap = new HashMap<>();
+        compactMap = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            strings[i] = prefix + i;
+            compacts[i] = CompactString.of(strings[i]);
+            // 内容相同的另一个实例，equals不会走引用相等的捷径
+            probes[i] = new String(strings[(i * 7) % KEYS]);
+            compactProbes[i] = CompactString.of(probes[i]);
+            stringMap.put(strings[i], i);
+            compactMap.put(compacts[i], i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int stringCreate() {
+        int n = 0;
+        for (String s : strings) {
+            n += new String(s.toCharArray()).length();
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int compactCreate() {
+        int n = 0;
+        for (String s : strings) {
+            n += CompactString.of(s).length();
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int stringMapGet() {
+        int n = 0;
+        for (String p : probes) {
+            n += stringMap.get(p);
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int compactMapGet() {
+        int n = 0;
+        for (CompactString p : compactProbes) {
+            n += compactMap.get(p);
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int stringCompareTo() {
+        int n = 0;
+        for (int i = 1; i < KEYS; i++) {
+            n += strings[i].compareTo(strings[i - 1]);
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int compactCompareTo() {
+        int n = 0;
+        for (int i = 1; i < KEYS; i++) {
+            n += compacts[i].compareTo(compacts[i - 1]);
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int stringCharAt() {
+        int n = 0;
+        for (String s : strings) {
+            for (int i = 0; i < s.length(); i++) {
+                n += s.charAt(i);
+            }
+        }
+        return n;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int compactCharAt() {
+        int n = 0;
+        for (CompactString s : compacts) {
+            for (int i = 0; i < s.length(); i++) {
+                n += s.charAt(i);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 需要交给只接受String的API时的转换开销
+     */
+    @Benchmark
+    @OperationsPerInvocation(KEYS)
+    public int compactToString() {
+        int n = 0;
+        for (CompactString s : compacts) {
+            n += s.toString().length();
+        }
+        return n;
+    }
+}
@@ -0,0 +1,161 @@
+package com.kunbu.java.basic.base.string;
+
+import com.google.common.base.Splitter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分号分隔的日志行（同StringTest.testIndexOf()里的格式），统计非null字段并取第二个字段
+ *
+ * split/Splitter每个字段都会创建String，FieldTokenizer只移动下标，分配对比看 -prof gc：
+ *
+ *      java -jar benchmarks.jar FieldTokenizerBenchmark -prof gc
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 12:10
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldTokenizerBenchmark {
+
+    private static final int LINES = 1024;
+    private static final Splitter SPLITTER = Splitter.on(';');
+
+    private String[] lines;
+    private byte[][] rawLines;
+    private final FieldTokenizer tokenizer = new FieldTokenizer(';');
+    private final ByteFieldTokenizer byteTokenizer = new ByteFieldTokenizer(';');
+    private final FieldTokenizer.Range range = new FieldTokenizer.Range();
+
+    @Setup
+    public void setup() {
+        lines = new String[LINES];
+        rawLines = new byte[LINES][];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = "A0BC92D94BD82755F807CBC1B78A" + Integer.toHexString(i) + ";user" + i
+                    + ";null;0865533033" + (100000 + i) + ";roleName='领航订单客服';" + (i * 31L) + ";";
+            rawLines[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void split(Blackhole bh) {
+        for (String line : lines) {
+            String[] fields = line.split(";");
+            int count = 0;
+            for (String f : fields) {
+                if (!"null".equals(f)) {
+                    count++;
+                }
+            }
+            bh.consume(count);
+            bh.consume(fields[1]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void guavaSplitter(Blackhole bh) {
+        for (String line : lines) {
+            int count = 0;
+            int index = 0;
+            String second = null;
+            for (String f : SPLITTER.split(line)) {
+                if (!"null".equals(f)) {
+                    count++;
+                }
+                if (index++ == 1) {
+                    second = f;
+                }
+            }
+            bh.consume(count);
+            bh.consume(second);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void fieldTokenizer(Blackhole bh) {
+        FieldTokenizer t = tokenizer;
+        for (String line : lines) {
+            t.reset(line);
+            int count = 0;
+            int index = 0;
+            int secondStart = 0;
+            while (t.next()) {
+                if (!t.fieldEquals("null")) {
+                    count++;
+                }
+                if (index++ == 1) {
+                    secondStart = t.start();
+                }
+            }
+            bh.consume(count);
+            bh.consume(secondStart);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void byteFieldTokenizer(Blackhole bh) {
+        ByteFieldTokenizer t = byteTokenizer;
+        for (byte[] line : rawLines) {
+            t.reset(line);
+            int count = 0;
+            int index = 0;
+            int secondStart = 0;
+            while (t.next()) {
+                if (!t.fieldEquals("null")) {
+                    count++;
+                }
+                if (index++ == 1) {
+                    secondStart = t.start();
+                }
+            }
+            bh.consume(count);
+            bh.consume(secondStart);
+        }
+    }
+
+    /**
+     * 原来的subStringContent：indexOf + substring两次
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void quotedSubstring(Blackhole bh) {
+        for (String line : lines) {
+            String s = line.substring(line.indexOf("roleName") + "roleName".length() + 2);
+            bh.consume(s.substring(0, s.indexOf('\'')));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void quotedTokenizer(Blackhole bh) {
+        FieldTokenizer.Range r = range;
+        for (String line : lines) {
+            if (FieldTokenizer.findQuoted(line, "roleName", '\'', r)) {
+                bh.consume(r.start);
+            }
+        }
+    }
+}
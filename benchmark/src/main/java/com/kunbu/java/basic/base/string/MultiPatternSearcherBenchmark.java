@@ -0,0 +1,101 @@
+package com.kunbu.java.basic.base.string;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一行日志里统计所有关键字的出现次数：每个关键字各indexOf一遍 vs 多模式一遍扫描
+ *
+ * keywords：关键字个数，indexOf的耗时随之线性增长，自动机基本不变
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-21 15:00
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiPatternSearcherBenchmark {
+
+    private static final String[] ALL_KEYWORDS = {
+            ";", "（", "roleName", "'", "menuId", "admin", "null", "orderNo",
+            "userId", "token", "status", "amount", "createTime", "remark", "phone", "address"};
+
+    @Param({"4", "16"})
+    public int keywords;
+
+    private String line;
+    private byte[] lineBytes;
+    private String[] patterns;
+    private MultiPatternSearcher searcher;
+    private final Counter counter = new Counter();
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            sb.append("org.apache.catalina.session.StandardSessionFacade@7147820e;admin;")
+                    .append("null',roleName='领航订单客服'}menuId=").append(i)
+                    .append(";编辑角色（必传参数:'id'）;orderNo=").append(1000 + i).append(';');
+        }
+        line = sb.toString();
+        lineBytes = line.getBytes(StandardCharsets.UTF_8);
+        patterns = new String[keywords];
+        System.arraycopy(ALL_KEYWORDS, 0, patterns, 0, keywords);
+        searcher = MultiPatternSearcher.of(patterns);
+    }
+
+    @Benchmark
+    public int indexOfEach() {
+        int count = 0;
+        for (String p : patterns) {
+            for (int i = line.indexOf(p); i >= 0; i = line.indexOf(p, i + p.length())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int ahoCorasick() {
+        counter.count = 0;
+        searcher.search(line, counter);
+        return counter.count;
+    }
+
+    @Benchmark
+    public int ahoCorasickBytes() {
+        counter.count = 0;
+        searcher.search(lineBytes, 0, lineBytes.length, counter);
+        return counter.count;
+    }
+
+    /**
+     * 复用的handler，不在每次调用时创建lambda
+     */
+    static final class Counter implements MultiPatternSearcher.MatchHandler {
+
+        int count;
+
+        @Override
+        public boolean onMatch(int pattern, int start, int end) {
+            count++;
+            return true;
+        }
+    }
+}
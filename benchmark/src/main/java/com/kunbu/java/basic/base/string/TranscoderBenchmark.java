@@ -0,0 +1,105 @@
+package com.kunbu.java.basic.base.string;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StringTest.testGetBytes()的写法（按名字getBytes/new String）和Transcoder的对比
+ *
+ * charset：UTF-8/ISO-8859-1在JDK9+的String里有快速路径，GBK走的是通用的CharsetEncoder
+ * length：短的文件名，以及较长的导出行
+ *
+ *      java -jar benchmarks.jar TranscoderBenchmark -prof gc
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 14:50
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscoderBenchmark {
+
+    @Param({StringTest.CHARSET_UTF8, StringTest.CHARSET_GBK, StringTest.CHARSET_IOS})
+    public String charsetName;
+
+    @Param({"16", "1024"})
+    public int length;
+
+    private Charset charset;
+    private String text;
+    private byte[] encoded;
+    private byte[] utf8;
+
+    @Setup
+    public void setup() {
+        charset = Charset.forName(charsetName);
+        StringBuilder sb = new StringBuilder(length);
+        String sample = "昆布kunbu-订单导出.xlsx;";
+        while (sb.length() < length) {
+            sb.append(sample);
+        }
+        text = sb.substring(0, length);
+        encoded = text.getBytes(charset);
+        utf8 = text.getBytes(Charset.forName(StringTest.CHARSET_UTF8));
+    }
+
+    @Benchmark
+    public byte[] getBytesByName() throws UnsupportedEncodingException {
+        return text.getBytes(charsetName);
+    }
+
+    @Benchmark
+    public byte[] getBytesByCharset() {
+        return text.getBytes(charset);
+    }
+
+    @Benchmark
+    public byte[] transcoderEncode() {
+        return Transcoder.encode(text, charsetName);
+    }
+
+    @Benchmark
+    public String newStringByName() throws UnsupportedEncodingException {
+        return new String(encoded, charsetName);
+    }
+
+    @Benchmark
+    public String newStringByCharset() {
+        return new String(encoded, charset);
+    }
+
+    @Benchmark
+    public String transcoderDecode() {
+        return Transcoder.decode(encoded, charsetName);
+    }
+
+    /**
+     * UTF-8字节转目标编码：原来要先new String再getBytes
+     */
+    @Benchmark
+    public byte[] roundTripByName() throws UnsupportedEncodingException {
+        return new String(utf8, StringTest.CHARSET_UTF8).getBytes(charsetName);
+    }
+
+    @Benchmark
+    public byte[] transcoderTranscode() {
+        return Transcoder.transcode(utf8, Transcoder.charset(StringTest.CHARSET_UTF8), Transcoder.charset(charsetName));
+    }
+}
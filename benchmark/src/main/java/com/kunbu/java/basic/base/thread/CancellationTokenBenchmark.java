@@ -0,0 +1,97 @@
+package com.kunbu.java.basic.base.thread;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 紧凑循环中每次迭代检查一次取消的开销，基准为不检查（JIT可能把循环向量化，差值即检查带来的代价）
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 16:10
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CancellationTokenBenchmark {
+
+    private static final int LOOP = 1024;
+
+    private final int[] data = new int[LOOP];
+    private volatile boolean flag;
+    private CancellationToken token;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < LOOP; i++) {
+            data[i] = i;
+        }
+        token = CancellationToken.create().child();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public long noCheck() {
+        long sum = 0;
+        for (int i = 0; i < LOOP; i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public long volatileFlag() {
+        long sum = 0;
+        for (int i = 0; i < LOOP && !flag; i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public long isInterrupted() {
+        long sum = 0;
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < LOOP && !current.isInterrupted(); i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public long tokenIsCancelled() {
+        long sum = 0;
+        for (int i = 0; i < LOOP && !token.isCancelled(); i++) {
+            sum += data[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOP)
+    public long tokenThrowIfCancelled() {
+        long sum = 0;
+        for (int i = 0; i < LOOP; i++) {
+            token.throwIfCancelled();
+            sum += data[i];
+        }
+        return sum;
+    }
+}
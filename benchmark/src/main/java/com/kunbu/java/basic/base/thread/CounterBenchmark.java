@@ -0,0 +1,66 @@
+package com.kunbu.java.basic.base.thread;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 计数器竞争测试，线程数从1扫到Ncpu看扩展性：
+ *
+ *      java -cp benchmarks.jar com.kunbu.java.basic.benchmark.BenchmarkRunner CounterBenchmark.increment
+ *
+ * readWrite组模拟监控场景：3个线程写，1个线程周期性读
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 17:40
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+
+    @Param({"SYNCHRONIZED", "ATOMIC", "STRIPED", "PER_THREAD"})
+    public Counters.Type type;
+
+    private Counter counter;
+
+    @Setup
+    public void setup() {
+        counter = Counters.create(type);
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public void write() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public long read() {
+        return counter.get();
+    }
+}
@@ -0,0 +1,68 @@
+package com.kunbu.java.basic.base.thread;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeadlockWatchdog单次采样（无死锁时）的耗时，和进程内线程数相关
+ *
+ * 按1秒采样一次算，几十微秒的开销可以忽略
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 19:20
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeadlockWatchdogBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int idleThreads;
+
+    private DeadlockWatchdog watchdog;
+    private CountDownLatch release;
+
+    @Setup
+    public void setup() {
+        watchdog = new DeadlockWatchdog(report -> {
+        });
+        release = new CountDownLatch(1);
+        for (int i = 0; i < idleThreads; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Benchmark
+    public String sample() {
+        return watchdog.sample();
+    }
+}
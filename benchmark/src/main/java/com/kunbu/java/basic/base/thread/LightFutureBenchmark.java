@@ -0,0 +1,94 @@
+package com.kunbu.java.basic.base.thread;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 一对一结果传递：benchmark线程创建Future交给单个生产者线程，再阻塞等待结果
+ *
+ * 三种实现都走同一个单线程池，差异只在Future本身的等待/唤醒和分配开销
+ * 分配情况加 -prof gc 查看 gc.alloc.rate.norm
+ *
+ *      java -jar benchmarks.jar LightFutureBenchmark -prof gc
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 15:20
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LightFutureBenchmark {
+
+    private static final Integer RESULT = 1;
+    private static final Callable<Integer> CALLABLE = () -> RESULT;
+    private static final Supplier<Integer> SUPPLIER = () -> RESULT;
+
+    private ExecutorService producer;
+
+    @Setup
+    public void setup() {
+        producer = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer lightFuture() throws Exception {
+        LightFuture<Integer> future = new LightFuture<>(CALLABLE);
+        producer.execute(future);
+        return future.get();
+    }
+
+    @Benchmark
+    public Integer futureTask() throws Exception {
+        FutureTask<Integer> future = new FutureTask<>(CALLABLE);
+        producer.execute(future);
+        return future.get();
+    }
+
+    @Benchmark
+    public Integer completableFuture() throws Exception {
+        return CompletableFuture.supplyAsync(SUPPLIER, producer).get();
+    }
+
+    /**
+     * 不经过Callable，直接complete，即纯粹的结果通道
+     */
+    @Benchmark
+    public Integer lightFutureComplete() throws Exception {
+        LightFuture<Integer> future = new LightFuture<>();
+        producer.execute(() -> future.complete(RESULT));
+        return future.get();
+    }
+
+    @Benchmark
+    public Integer completableFutureComplete() throws Exception {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        producer.execute(() -> future.complete(RESULT));
+        return future.get();
+    }
+}
@@ -0,0 +1,112 @@
+package com.kunbu.java.basic.base.thread;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThreadPool中几种线程池配置的吞吐和延迟
+ *
+ *      pool：myThreadPool / getThreadPool / fixed（Executors.newFixedThreadPool(Ncpu)）/ forkJoin（getForkJoinPool）
+ *      work：每个任务消耗的CPU单位（Blackhole.consumeCPU），0表示空任务，只测调度开销
+ *      提交线程数：-t 指定，或用BenchmarkRunner按1/4/Ncpu扫一遍
+ *
+ * submitAndGet的SampleTime结果里有p0.99/p0.999，即尾延迟；submitBatch看整体吞吐
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 16:02
+ **/
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThreadPoolBenchmark {
+
+    /** 每次批量提交的任务数，小于getThreadPool的队列长度1024 */
+    private static final int BATCH = 256;
+
+    @Param({"myThreadPool", "getThreadPool", "fixed", "forkJoin"})
+    public String pool;
+
+    @Param({"0", "100", "10000"})
+    public long work;
+
+    private ExecutorService executor;
+    private Runnable task;
+
+    @Setup
+    public void setup() {
+        switch (pool) {
+            case "myThreadPool":
+                executor = ThreadPool.newMyThreadPool();
+                break;
+            case "getThreadPool":
+                executor = ThreadPool.getThreadPool();
+                break;
+            case "forkJoin":
+                executor = ThreadPool.getForkJoinPool();
+                break;
+            case "fixed":
+                executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+                break;
+            default:
+                throw new IllegalArgumentException(pool);
+        }
+        final long tokens = work;
+        task = () -> Blackhole.consumeCPU(tokens);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    public Object submitAndGet() throws Exception {
+        Future<?> future = executor.submit(task);
+        return future.get();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void submitBatch() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(BATCH);
+        Runnable counted = () -> {
+            try {
+                task.run();
+            } finally {
+                latch.countDown();
+            }
+        };
+        for (int i = 0; i < BATCH; i++) {
+            try {
+                executor.execute(counted);
+            } catch (RejectedExecutionException e) {
+                // getThreadPool是AbortPolicy，多个提交线程时队列可能被打满，这里退化为调用者执行，保证批次能结束
+                counted.run();
+            }
+        }
+        latch.await();
+    }
+}
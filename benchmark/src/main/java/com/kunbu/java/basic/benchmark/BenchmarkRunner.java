@@ -0,0 +1,55 @@
+package com.kunbu.java.basic.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 按线程数1/2/4/.../Ncpu依次运行基准测试，每轮结果写到 jmh-result/{时间}-t{线程数}.json，便于版本间对比
+ *
+ * 其余参数和 java -jar benchmarks.jar 一致，如：
+ *      java -cp benchmarks.jar com.kunbu.java.basic.benchmark.BenchmarkRunner ThreadPoolBenchmark -p work=100
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 16:30
+ **/
+public class BenchmarkRunner {
+
+    private static final String RESULT_DIR = "jmh-result";
+
+    public static void main(String[] args) throws Exception {
+        Options cmd = new CommandLineOptions(args);
+        new File(RESULT_DIR).mkdirs();
+        String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        for (int threads : threadCounts(Runtime.getRuntime().availableProcessors())) {
+            Options opt = new OptionsBuilder()
+                    .parent(cmd)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(RESULT_DIR + File.separator + time + "-t" + threads + ".json")
+                    .build();
+            new Runner(opt).run();
+        }
+    }
+
+    /**
+     * 1开始按2的幂递增，最后补上Ncpu
+     */
+    static List<Integer> threadCounts(int cpuSize) {
+        List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < cpuSize; t <<= 1) {
+            counts.add(t);
+        }
+        counts.add(cpuSize);
+        return counts;
+    }
+}
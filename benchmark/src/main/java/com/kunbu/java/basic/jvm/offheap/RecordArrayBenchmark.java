@@ -0,0 +1,159 @@
+package com.kunbu.java.basic.jvm.offheap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 扫描（按状态过滤求金额）和更新（改价）：POJO数组 vs 堆内/堆外RecordArray
+ *
+ * layout：
+ *      sequential  POJO按下标顺序分配，对象在堆里基本连续，是POJO的最好情况
+ *      shuffled    POJO数组打乱，对象分散（长期运行、多次GC后的常见状态），RecordArray不受影响
+ *
+ * 1M条记录时POJO约44MB（40B对象 + 4B引用），RecordArray为24MB
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 17:20
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RecordArrayBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"sequential", "shuffled"})
+    public String layout;
+
+    private Order[] pojos;
+    private RecordArray heap;
+    private RecordArray direct;
+
+    private RecordSchema.LongField orderId;
+    private RecordSchema.IntField quantity;
+    private RecordSchema.DoubleField price;
+    private RecordSchema.ByteField status;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        RecordSchema schema = RecordSchema.builder()
+                .addLong("orderId").addInt("quantity").addDouble("price").addByte("status")
+                .build();
+        orderId = schema.longField("orderId");
+        quantity = schema.intField("quantity");
+        price = schema.doubleField("price");
+        status = schema.byteField("status");
+
+        List<Order> list = new ArrayList<>(size);
+        heap = RecordArray.allocate(schema, size);
+        direct = RecordArray.allocateDirect(schema, size);
+        for (int k = 0; k < size; k++) {
+            Order o = new Order(10_000L + k, k % 7 + 1, (k % 100) * 0.5, (byte) (k % 3));
+            list.add(o);
+            fill(heap, o);
+            fill(direct, o);
+        }
+        if ("shuffled".equals(layout)) {
+            // 只打乱POJO的引用顺序：遍历顺序不变，但访问的内存变成随机的
+            Collections.shuffle(list);
+        }
+        pojos = list.toArray(new Order[0]);
+    }
+
+    private void fill(RecordArray records, Order o) {
+        int i = records.add();
+        orderId.set(records, i, o.orderId);
+        quantity.set(records, i, o.quantity);
+        price.set(records, i, o.price);
+        status.set(records, i, o.status);
+    }
+
+    @Benchmark
+    public double scanPojo() {
+        double total = 0;
+        for (Order o : pojos) {
+            if (o.status == 1) {
+                total += o.price * o.quantity;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double scanHeapRecords() {
+        return scan(heap);
+    }
+
+    @Benchmark
+    public double scanDirectRecords() {
+        return scan(direct);
+    }
+
+    @Benchmark
+    public void updatePojo() {
+        for (Order o : pojos) {
+            o.price = o.price * 1.01;
+        }
+    }
+
+    @Benchmark
+    public void updateHeapRecords() {
+        update(heap);
+    }
+
+    @Benchmark
+    public void updateDirectRecords() {
+        update(direct);
+    }
+
+    private double scan(RecordArray records) {
+        double total = 0;
+        for (int i = 0, n = records.size(); i < n; i++) {
+            if (status.get(records, i) == 1) {
+                total += price.get(records, i) * quantity.get(records, i);
+            }
+        }
+        return total;
+    }
+
+    private void update(RecordArray records) {
+        for (int i = 0, n = records.size(); i < n; i++) {
+            price.set(records, i, price.get(records, i) * 1.01);
+        }
+    }
+
+    static final class Order {
+
+        final long orderId;
+        final int quantity;
+        double price;
+        final byte status;
+
+        Order(long orderId, int quantity, double price, byte status) {
+            this.orderId = orderId;
+            this.quantity = quantity;
+            this.price = price;
+            this.status = status;
+        }
+    }
+}
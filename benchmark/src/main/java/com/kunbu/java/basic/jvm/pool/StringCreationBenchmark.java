@@ -0,0 +1,102 @@
+package com.kunbu.java.basic.jvm.pool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字符串拼接方式的耗时和分配，配合gc profiler看每次操作分配的字节数（gc.alloc.rate.norm）：
+ *
+ *      java -jar benchmarks.jar StringCreationBenchmark -prof gc
+ *
+ * parts：拼接的片段数，片段越多，未指定容量的StringBuilder扩容次数越多
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 10:10
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCreationBenchmark {
+
+    @Param({"2", "8"})
+    public int parts;
+
+    private String[] values;
+    private int totalLength;
+
+    @Setup
+    public void setup() {
+        values = new String[parts];
+        totalLength = 0;
+        for (int i = 0; i < parts; i++) {
+            values[i] = "part" + i;
+            totalLength += values[i].length();
+        }
+    }
+
+    @Benchmark
+    public String concatOperator() {
+        String s = "";
+        for (String v : values) {
+            s = s + v;
+        }
+        return s;
+    }
+
+    @Benchmark
+    public String stringBuilder() {
+        StringBuilder sb = new StringBuilder();
+        for (String v : values) {
+            sb.append(v);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String sizedStringBuilder() {
+        StringBuilder sb = new StringBuilder(totalLength);
+        for (String v : values) {
+            sb.append(v);
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String stringJoin() {
+        return String.join("", values);
+    }
+
+    @Benchmark
+    public String stringBuilderIntern() {
+        StringBuilder sb = new StringBuilder(totalLength);
+        for (String v : values) {
+            sb.append(v);
+        }
+        return sb.toString().intern();
+    }
+
+    @Benchmark
+    public String newString() {
+        return new String(values[0]);
+    }
+
+    @Benchmark
+    public String valueOf() {
+        return String.valueOf(totalLength);
+    }
+}
@@ -0,0 +1,93 @@
+package com.kunbu.java.basic.jvm.pool;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 百万级不同key下的去重开销：String.intern() / Guava Interners（弱引用、强引用）/ StringInterner（LRU）
+ *
+ * keys是预先生成的不同实例，内容在[0, distinct)范围内随机重复；StringInterner容量取distinct的一半，体现淘汰的影响
+ * 每轮迭代重建池子（String.intern除外，它没法清空），-Xmx要足够大
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 17:30
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:StringTableSize=1000003"})
+public class StringInternerBenchmark {
+
+    private static final int KEYS = 1 << 22;
+
+    @Param({"1000000", "4000000"})
+    public int distinct;
+
+    private String[] keys;
+    private Interner<String> weakInterner;
+    private Interner<String> strongInterner;
+    private StringInterner lruInterner;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        keys = new String[KEYS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new String("user:" + random.nextInt(distinct));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        weakInterner = Interners.newWeakInterner();
+        strongInterner = Interners.newStrongInterner();
+        lruInterner = new StringInterner(distinct / 2);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int index = ThreadLocalRandom.current().nextInt(KEYS);
+
+        String next(String[] keys) {
+            return keys[index++ & (KEYS - 1)];
+        }
+    }
+
+    @Benchmark
+    public String jdkIntern(Cursor cursor) {
+        return cursor.next(keys).intern();
+    }
+
+    @Benchmark
+    public String guavaWeak(Cursor cursor) {
+        return weakInterner.intern(cursor.next(keys));
+    }
+
+    @Benchmark
+    public String guavaStrong(Cursor cursor) {
+        return strongInterner.intern(cursor.next(keys));
+    }
+
+    @Benchmark
+    public String lru(Cursor cursor) {
+        return lruInterner.intern(cursor.next(keys));
+    }
+}
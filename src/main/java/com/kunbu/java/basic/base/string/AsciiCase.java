@@ -0,0 +1,314 @@
+package com.kunbu.java.basic.base.string;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 大小写转换、忽略大小写比较和查找的快速路径，适合订单号、编码、用户名这类基本都是ASCII的标识符
+ *
+ * String.toUpperCase()/equalsIgnoreCase()对每个字符都要走Character.toUpperCase的Unicode表（还要考虑ß -> SS这类长度变化），
+ * 对纯ASCII输入这些都是多余的：
+ *      1.先一遍OR扫描判断是否纯ASCII（所有字符或起来 < 0x80），没有分支
+ *      2.ASCII字母的大小写只差0x20，用减法的符号位算出掩码，不用if判断是否在a~z之间：
+ *          ((c - 'a') | ('z' - c)) 在c∈[a, z]时两项都 >= 0，否则至少一项 < 0，
+ *          取反后的符号位移到0x20这一位，正好就是要异或的值
+ *      3.Latin-1（< 0x100）查256长度的表，表里标出映射结果超出Latin-1的字符（ß、ÿ、µ），遇到就回退
+ *      4.其它情况回退到JDK的完整Unicode规则
+ *
+ * 注意：回退使用Locale.ROOT而不是默认Locale，StringTest.main里的toUpperCase()在土耳其语环境下 i 会变成 İ
+ *
+ * byte[]版本按UTF-8处理：ASCII字节直接折叠，UTF-8多字节序列的每个字节都 >= 0x80，不会被误改；
+ * 忽略大小写的比较/查找遇到非ASCII字节时解码成String再按Unicode规则处理
+ * （Unicode下 K(U+212A)、ſ(U+017F) 和ASCII的k、s忽略大小写相等，只比字节会漏掉）
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-21 10:00
+ **/
+public final class AsciiCase {
+
+    /** Latin-1字符转大写，超出Latin-1的标为0 */
+    private static final char[] LATIN1_UPPER = new char[256];
+    /** Latin-1字符转小写，Latin-1内大写字母的小写都在Latin-1内 */
+    private static final char[] LATIN1_LOWER = new char[256];
+
+    static {
+        for (char c = 0; c < 256; c++) {
+            String upper = String.valueOf(c).toUpperCase(Locale.ROOT);
+            LATIN1_UPPER[c] = upper.length() == 1 && upper.charAt(0) < 256 ? upper.charAt(0) : 0;
+            LATIN1_LOWER[c] = Character.toLowerCase(c);
+        }
+    }
+
+    private AsciiCase() {
+    }
+
+    /**
+     * @return 0x00~0x7F
+     */
+    public static boolean isAscii(CharSequence s) {
+        int acc = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            acc |= s.charAt(i);
+        }
+        return acc < 0x80;
+    }
+
+    public static boolean isAscii(byte[] b, int offset, int length) {
+        int acc = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            // byte是有符号的，>= 0x80的字节符号扩展后是负数
+            acc |= b[i];
+        }
+        return acc >= 0;
+    }
+
+    public static boolean isLatin1(CharSequence s) {
+        int acc = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            acc |= s.charAt(i);
+        }
+        return acc < 0x100;
+    }
+
+    public static char toUpperAscii(char c) {
+        return (char) (c ^ (~((c - 'a') | ('z' - c)) >>> 26 & 0x20));
+    }
+
+    public static char toLowerAscii(char c) {
+        return (char) (c ^ (~((c - 'A') | ('Z' - c)) >>> 26 & 0x20));
+    }
+
+    public static byte toUpperAscii(byte b) {
+        return (byte) (b ^ (~((b - 'a') | ('z' - b)) >>> 26 & 0x20));
+    }
+
+    public static byte toLowerAscii(byte b) {
+        return (byte) (b ^ (~((b - 'A') | ('Z' - b)) >>> 26 & 0x20));
+    }
+
+    /**
+     * 同 s.toUpperCase(Locale.ROOT)，不需要转换时返回原对象
+     */
+    public static String toUpperCase(String s) {
+        int n = s.length();
+        int acc = 0;
+        for (int i = 0; i < n; i++) {
+            acc |= s.charAt(i);
+        }
+        if (acc < 0x80) {
+            char[] chars = null;
+            for (int i = 0; i < n; i++) {
+                char c = s.charAt(i);
+                char u = toUpperAscii(c);
+                if (u != c) {
+                    if (chars == null) {
+                        chars = s.toCharArray();
+                    }
+                    chars[i] = u;
+                }
+            }
+            return chars == null ? s : new String(chars);
+        }
+        if (acc < 0x100) {
+            char[] chars = null;
+            for (int i = 0; i < n; i++) {
+                char c = s.charAt(i);
+                char u = LATIN1_UPPER[c];
+                if (u == 0 && c != 0) {
+                    // ß -> SS 长度会变，ÿ/µ的大写不在Latin-1
+                    return s.toUpperCase(Locale.ROOT);
+                }
+                if (u != c) {
+                    if (chars == null) {
+                        chars = s.toCharArray();
+                    }
+                    chars[i] = u;
+                }
+            }
+            return chars == null ? s : new String(chars);
+        }
+        return s.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 同 s.toLowerCase(Locale.ROOT)，不需要转换时返回原对象
+     */
+    public static String toLowerCase(String s) {
+        int n = s.length();
+        int acc = 0;
+        for (int i = 0; i < n; i++) {
+            acc |= s.charAt(i);
+        }
+        if (acc >= 0x100) {
+            return s.toLowerCase(Locale.ROOT);
+        }
+        boolean ascii = acc < 0x80;
+        char[] chars = null;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            char l = ascii ? toLowerAscii(c) : LATIN1_LOWER[c];
+            if (l != c) {
+                if (chars == null) {
+                    chars = s.toCharArray();
+                }
+                chars[i] = l;
+            }
+        }
+        return chars == null ? s : new String(chars);
+    }
+
+    /**
+     * UTF-8字节中的ASCII字母原地转大写，多字节字符不变
+     */
+    public static void toUpperAscii(byte[] b, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            b[i] = toUpperAscii(b[i]);
+        }
+    }
+
+    public static void toLowerAscii(byte[] b, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            b[i] = toLowerAscii(b[i]);
+        }
+    }
+
+    /**
+     * 同 a.equalsIgnoreCase(b)
+     */
+    public static boolean equalsIgnoreCase(String a, String b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null || a.length() != b.length()) {
+            return false;
+        }
+        int n = a.length();
+        int acc = 0;
+        for (int i = 0; i < n; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            acc |= x | y;
+            if (x != y && toLowerAscii(x) != toLowerAscii(y)) {
+                // 不相等且不是ASCII字母的大小写差异，只有存在非ASCII字符时才可能按Unicode规则相等
+                return acc >= 0x80 && a.regionMatches(true, i, b, i, n - i);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 同 s.toLowerCase().indexOf(target.toLowerCase(), from)，但不创建新字符串（Unicode规则下长度会变的字符除外）
+     */
+    public static int indexOfIgnoreCase(String s, String target, int from) {
+        int n = target.length();
+        int max = s.length() - n;
+        if (from < 0) {
+            from = 0;
+        }
+        if (n == 0) {
+            return from <= s.length() ? from : -1;
+        }
+        if (!isAscii(s) || !isAscii(target)) {
+            for (int i = from; i <= max; i++) {
+                if (s.regionMatches(true, i, target, 0, n)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        char first = toLowerAscii(target.charAt(0));
+        for (int i = from; i <= max; i++) {
+            if (toLowerAscii(s.charAt(i)) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < n && toLowerAscii(s.charAt(i + j)) == toLowerAscii(target.charAt(j))) {
+                j++;
+            }
+            if (j == n) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 两段UTF-8字节忽略大小写比较，语义同解码后的equalsIgnoreCase
+     */
+    public static boolean equalsIgnoreCase(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+        if (aLength == bLength) {
+            boolean equal = true;
+            for (int i = 0; i < aLength; i++) {
+                byte x = a[aOffset + i];
+                byte y = b[bOffset + i];
+                if (toLowerAscii(x) != toLowerAscii(y)) {
+                    equal = false;
+                    break;
+                }
+            }
+            if (equal) {
+                // 逐字节相等（ASCII字母忽略大小写），解码后也一定忽略大小写相等
+                return true;
+            }
+            if (isAscii(a, aOffset, aLength) && isAscii(b, bOffset, bLength)) {
+                return false;
+            }
+        } else if (isAscii(a, aOffset, aLength) && isAscii(b, bOffset, bLength)) {
+            return false;
+        }
+        // 有非ASCII字节，UTF-8长度不同也可能忽略大小写相等（如 K 和 U+212A）
+        return new String(a, aOffset, aLength, StandardCharsets.UTF_8)
+                .equalsIgnoreCase(new String(b, bOffset, bLength, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 在UTF-8字节中忽略大小写查找target，返回匹配开始的字节位置（相对数组开头），没有返回-1
+     */
+    public static int indexOfIgnoreCase(byte[] b, int offset, int length, byte[] target) {
+        int n = target.length;
+        if (n == 0) {
+            return offset;
+        }
+        if (!isAscii(b, offset, length) || !isAscii(target, 0, n)) {
+            String s = new String(b, offset, length, StandardCharsets.UTF_8);
+            int index = indexOfIgnoreCase(s, new String(target, StandardCharsets.UTF_8), 0);
+            return index < 0 ? -1 : offset + utf8Offset(s, index);
+        }
+        byte first = toLowerAscii(target[0]);
+        for (int i = offset, max = offset + length - n; i <= max; i++) {
+            if (toLowerAscii(b[i]) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < n && toLowerAscii(b[i + j]) == toLowerAscii(target[j])) {
+                j++;
+            }
+            if (j == n) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * s的前charIndex个字符按UTF-8编码的字节数
+     */
+    static int utf8Offset(String s, int charIndex) {
+        int bytes = 0;
+        for (int i = 0; i < charIndex; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
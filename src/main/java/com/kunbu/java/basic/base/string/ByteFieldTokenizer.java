@@ -0,0 +1,178 @@
+package com.kunbu.java.basic.base.string;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FieldTokenizer的字节数组版本，直接在读出的原始字节（如文件/网络缓冲区）上切分，不需要先解码成String
+ *
+ * 分隔符必须是单字节（ASCII）。按编码分两种扫描：
+ *      1.UTF-8/US-ASCII/ISO-8859-x：非ASCII字符的每个字节都 >= 0x80，不会和ASCII分隔符混淆，逐字节比较即可
+ *      2.GBK/GB2312/GB18030：尾字节范围是0x40~0xFE（GB18030四字节的第2、4字节是0x30~0x39），
+ *        包含'@'、'A'~'Z'、'\'、'|'等，逐字节比较会把汉字切成两半；这时遇到 >= 0x81 的首字节就连同下一个字节一起跳过
+ * 其他编码（如Shift_JIS、Big5、UTF-16）不支持，构造时抛IllegalArgumentException
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 11:40
+ **/
+public class ByteFieldTokenizer {
+
+    private final byte delimiter;
+    /** GBK系：首字节 >= 0x81 时跳过尾字节 */
+    private final boolean doubleByte;
+
+    private byte[] source;
+    private int limit;
+    private int start;
+    private int end;
+    private int cursor;
+
+    /**
+     * 输入为UTF-8或ASCII
+     */
+    public ByteFieldTokenizer(char delimiter) {
+        this(delimiter, StandardCharsets.UTF_8);
+    }
+
+    public ByteFieldTokenizer(char delimiter, Charset charset) {
+        if (delimiter > 0x7F) {
+            throw new IllegalArgumentException("Delimiter must be ASCII: " + delimiter);
+        }
+        this.delimiter = (byte) delimiter;
+        this.doubleByte = isGbFamily(charset);
+        if (!doubleByte && !isAsciiTransparent(charset)) {
+            throw new IllegalArgumentException("Unsupported charset: " + charset);
+        }
+    }
+
+    static boolean isAsciiTransparent(Charset charset) {
+        String name = charset.name();
+        return charset.equals(StandardCharsets.UTF_8)
+                || charset.equals(StandardCharsets.US_ASCII)
+                || name.startsWith("ISO-8859-");
+    }
+
+    static boolean isGbFamily(Charset charset) {
+        switch (charset.name()) {
+            case "GBK":
+            case "GB2312":
+            case "GB18030":
+            case "x-mswin-936":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public ByteFieldTokenizer reset(byte[] source, int from, int to) {
+        this.source = source;
+        this.limit = to;
+        this.cursor = from;
+        this.start = from;
+        this.end = from;
+        return this;
+    }
+
+    public ByteFieldTokenizer reset(byte[] source) {
+        return reset(source, 0, source.length);
+    }
+
+    public boolean next() {
+        if (cursor >= limit) {
+            return false;
+        }
+        start = cursor;
+        int i = cursor;
+        byte[] b = source;
+        byte d = delimiter;
+        if (doubleByte) {
+            while (i < limit && b[i] != d) {
+                // 首字节0x81~0xFE，尾字节不参与比较；截断在半个字符处时end不超过limit
+                i += (b[i] & 0xFF) >= 0x81 ? 2 : 1;
+            }
+            i = Math.min(i, limit);
+        } else {
+            while (i < limit && b[i] != d) {
+                i++;
+            }
+        }
+        end = i;
+        cursor = i + 1;
+        return true;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * 和ASCII字符串比较
+     */
+    public boolean fieldEquals(String ascii) {
+        int n = end - start;
+        if (n != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (source[start + i] != (byte) ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean fieldEquals(byte[] expected) {
+        int n = end - start;
+        if (n != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (source[start + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long fieldAsLong() {
+        if (start >= end) {
+            throw new NumberFormatException("Empty field");
+        }
+        boolean negative = source[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i >= end) {
+            throw new NumberFormatException("No digits");
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = source[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a digit at " + i);
+            }
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Overflow");
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Overflow");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    public String fieldAsString(Charset charset) {
+        return new String(source, start, end - start, charset);
+    }
+}
@@ -0,0 +1,302 @@
+package com.kunbu.java.basic.base.string;
+
+import com.kunbu.java.basic.jvm.ObjectSize.ObjectGraphSizer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDK8上的紧凑字符串：Latin-1（< 0x100）的内容每个字符存1个字节，其它情况退回UTF-16每个字符2个字节
+ *
+ * JDK8的String里是char[]，纯ASCII也是每个字符2字节，StringPoolTest里JOL的输出 "literal" 的[C就占了32字节；
+ * JDK9的compact strings（JEP 254）就是这个思路，这里在JDK8上手动实现，用于大量驻留内存的编码、名称、标签等
+ *
+ *      String("literal")         24 + char[7](16 + 14 -> 32)  = 56字节
+ *      CompactString("literal")  24 + byte[7](16 + 7 -> 24)   = 48字节
+ *
+ * 长度越长节省越接近一半；1~4个字符时两者的数组对齐后一样大，没有收益
+ *
+ * 和String兼容：
+ *      1.hashCode()算法相同，同样内容的String和CompactString哈希值相等
+ *      2.compareTo按UTF-16代码单元比较，和String.compareTo顺序一致
+ *      3.equals只和CompactString相等（不能和String相等，否则违反对称性），和String比较用contentEquals
+ *
+ * 不可变，线程安全；hash延迟计算，同String的写法，多线程下最多重复计算
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-23 10:00
+ **/
+public final class CompactString implements CharSequence, Comparable<CompactString> {
+
+    static final byte LATIN1 = 0;
+    static final byte UTF16 = 1;
+
+    public static final CompactString EMPTY = new CompactString(new byte[0], LATIN1);
+
+    /** LATIN1：每个字符1字节；UTF16：每个字符2字节，高字节在前 */
+    private final byte[] value;
+    private final byte coder;
+    private int hash;
+
+    private CompactString(byte[] value, byte coder) {
+        this.value = value;
+        this.coder = coder;
+    }
+
+    public static CompactString of(CharSequence s) {
+        if (s instanceof CompactString) {
+            return (CompactString) s;
+        }
+        int n = s.length();
+        if (n == 0) {
+            return EMPTY;
+        }
+        int acc = 0;
+        for (int i = 0; i < n; i++) {
+            acc |= s.charAt(i);
+        }
+        if (acc < 0x100) {
+            byte[] bytes = new byte[n];
+            for (int i = 0; i < n; i++) {
+                bytes[i] = (byte) s.charAt(i);
+            }
+            return new CompactString(bytes, LATIN1);
+        }
+        byte[] bytes = new byte[n << 1];
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            bytes[i << 1] = (byte) (c >>> 8);
+            bytes[(i << 1) + 1] = (byte) c;
+        }
+        return new CompactString(bytes, UTF16);
+    }
+
+    public boolean isLatin1() {
+        return coder == LATIN1;
+    }
+
+    @Override
+    public int length() {
+        return value.length >> coder;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (coder == LATIN1) {
+            return (char) (value[index] & 0xFF);
+        }
+        return utf16At(value, index);
+    }
+
+    @Override
+    public CompactString subSequence(int start, int end) {
+        int length = length();
+        if (start < 0 || end > length || start > end) {
+            throw new StringIndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        if (start == 0 && end == length) {
+            return this;
+        }
+        if (coder == LATIN1) {
+            byte[] bytes = new byte[end - start];
+            System.arraycopy(value, start, bytes, 0, bytes.length);
+            return new CompactString(bytes, LATIN1);
+        }
+        // UTF-16的子串可能全是Latin-1，重新判断一次
+        Utf16View view = new Utf16View(value, start, end);
+        return of(view);
+    }
+
+    @Override
+    public String toString() {
+        if (coder == LATIN1) {
+            return new String(value, StandardCharsets.ISO_8859_1);
+        }
+        // 不能用UTF_16BE解码，单独的代理项会被替换成U+FFFD
+        char[] chars = new char[value.length >> 1];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = utf16At(value, i);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 同String.hashCode()
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0 && value.length > 0) {
+            byte[] v = value;
+            if (coder == LATIN1) {
+                for (byte b : v) {
+                    h = 31 * h + (b & 0xFF);
+                }
+            } else {
+                for (int i = 0, n = v.length >> 1; i < n; i++) {
+                    h = 31 * h + utf16At(v, i);
+                }
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactString)) {
+            return false;
+        }
+        CompactString other = (CompactString) o;
+        // of()保证能用Latin-1表示的一定是LATIN1，coder不同内容必然不同
+        if (coder != other.coder || value.length != other.value.length) {
+            return false;
+        }
+        int h1 = hash;
+        int h2 = other.hash;
+        if (h1 != 0 && h2 != 0 && h1 != h2) {
+            return false;
+        }
+        byte[] a = value;
+        byte[] b = other.value;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 和任意CharSequence（如String）比较内容
+     */
+    public boolean contentEquals(CharSequence s) {
+        int n = length();
+        if (n != s.length()) {
+            return false;
+        }
+        if (coder == LATIN1) {
+            for (int i = 0; i < n; i++) {
+                if ((value[i] & 0xFF) != s.charAt(i)) {
+                    return false;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (utf16At(value, i) != s.charAt(i)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 同String.compareTo：第一个不同字符的差值，一方是另一方的前缀时为长度差
+     */
+    @Override
+    public int compareTo(CompactString other) {
+        int n1 = length();
+        int n2 = other.length();
+        int lim = Math.min(n1, n2);
+        if (coder == LATIN1 && other.coder == LATIN1) {
+            byte[] a = value;
+            byte[] b = other.value;
+            for (int i = 0; i < lim; i++) {
+                if (a[i] != b[i]) {
+                    return (a[i] & 0xFF) - (b[i] & 0xFF);
+                }
+            }
+            return n1 - n2;
+        }
+        for (int i = 0; i < lim; i++) {
+            char c1 = charAt(i);
+            char c2 = other.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return n1 - n2;
+    }
+
+    /**
+     * 数据实际占用的字节数（不含对象头和数组头）
+     */
+    public int byteLength() {
+        return value.length;
+    }
+
+    private static char utf16At(byte[] v, int index) {
+        return (char) (((v[index << 1] & 0xFF) << 8) | (v[(index << 1) + 1] & 0xFF));
+    }
+
+    /**
+     * UTF-16数据一段区间的只读视图，subSequence时用来重新判断编码
+     */
+    private static final class Utf16View implements CharSequence {
+
+        private final byte[] value;
+        private final int start;
+        private final int end;
+
+        Utf16View(byte[] value, int start, int end) {
+            this.value = value;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return utf16At(value, start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return new Utf16View(value, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = utf16At(value, start + i);
+            }
+            return new String(chars);
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = 1_000_000;
+        for (int length : new int[]{3, 7, 16, 32}) {
+            List<String> strings = new ArrayList<>(n);
+            List<CompactString> compacts = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                StringBuilder sb = new StringBuilder(length);
+                sb.append(i);
+                while (sb.length() < length) {
+                    sb.append('x');
+                }
+                String s = sb.substring(0, length);
+                strings.add(s);
+                compacts.add(of(s));
+            }
+            long stringBytes = ObjectGraphSizer.deepSizeOf(strings);
+            long compactBytes = ObjectGraphSizer.deepSizeOf(compacts);
+            System.out.println(String.format("length %2d: String %6.1f B, CompactString %6.1f B (%.0f%%)",
+                    length, (double) stringBytes / n, (double) compactBytes / n, 100.0 * compactBytes / stringBytes));
+        }
+
+        CompactString kunbu = of("昆布");
+        System.out.println(kunbu + ", latin1=" + kunbu.isLatin1() + ", hash equal=" + (kunbu.hashCode() == "昆布".hashCode()));
+    }
+}
@@ -0,0 +1,242 @@
+package com.kunbu.java.basic.base.string;
+
+/**
+ * 按分隔符切分字段，不创建子串：字段以[start, end)的形式给出，需要时才转String
+ *
+ * 代替StringTest.testIndexOf()里的indexOf + substring + split(";")：split每次会创建String[]和每个字段的String，
+ * 一行日志几十个字段、每天上亿行时全是短命对象。这里一个tokenizer可以反复reset()复用，遍历字段没有任何分配
+ *
+ *      FieldTokenizer t = new FieldTokenizer(';');
+ *      t.reset(line);
+ *      while (t.next()) {
+ *          if (t.fieldEquals("admin")) {...}
+ *          long id = t.fieldAsLong();
+ *      }
+ *
+ * 和split的区别：以分隔符结尾时不产生最后的空字段，中间的空字段保留
+ * 字节数组（ASCII分隔符）见ByteFieldTokenizer
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 11:00
+ **/
+public class FieldTokenizer {
+
+    private final char delimiter;
+    private final View view = new View();
+
+    private CharSequence source;
+    private int limit;
+    private int start;
+    private int end;
+    /** 下一个字段的开始位置，> limit 表示已结束 */
+    private int cursor;
+
+    public FieldTokenizer(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    public FieldTokenizer reset(CharSequence source) {
+        return reset(source, 0, source.length());
+    }
+
+    public FieldTokenizer reset(CharSequence source, int from, int to) {
+        this.source = source;
+        this.limit = to;
+        this.cursor = from;
+        this.start = from;
+        this.end = from;
+        return this;
+    }
+
+    /**
+     * 移动到下一个字段
+     */
+    public boolean next() {
+        if (cursor >= limit) {
+            return false;
+        }
+        start = cursor;
+        int i = cursor;
+        CharSequence s = source;
+        char d = delimiter;
+        while (i < limit && s.charAt(i) != d) {
+            i++;
+        }
+        end = i;
+        cursor = i + 1;
+        return true;
+    }
+
+    /**
+     * 跳过n个字段，返回是否停在一个有效字段上
+     */
+    public boolean skip(int n) {
+        for (int i = 0; i < n; i++) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return next();
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    /**
+     * 当前字段的视图，同一个tokenizer返回同一个对象，next()之后内容随之改变，不要保存引用
+     */
+    public CharSequence field() {
+        return view;
+    }
+
+    public String fieldAsString() {
+        return source.subSequence(start, end).toString();
+    }
+
+    public boolean fieldEquals(CharSequence expected) {
+        return regionEquals(source, start, end, expected);
+    }
+
+    public long fieldAsLong() {
+        return parseLong(source, start, end);
+    }
+
+    /**
+     * 在[from, to)中查找 key=’value‘ 形式的值，如 roleName='领航订单客服'，找到时把值的范围写入out
+     * 代替StringTest.subStringContent()
+     */
+    public static boolean findQuoted(CharSequence s, int from, int to, CharSequence key, char quote, Range out) {
+        int keyLength = key.length();
+        for (int i = indexOf(s, key, from, to); i >= 0; i = indexOf(s, key, i + 1, to)) {
+            int valueStart = i + keyLength + 2;
+            if (valueStart <= to && s.charAt(i + keyLength) == '=' && s.charAt(i + keyLength + 1) == quote) {
+                for (int j = valueStart; j < to; j++) {
+                    if (s.charAt(j) == quote) {
+                        out.start = valueStart;
+                        out.end = j;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    public static boolean findQuoted(CharSequence s, CharSequence key, char quote, Range out) {
+        return findQuoted(s, 0, s.length(), key, quote, out);
+    }
+
+    static int indexOf(CharSequence s, CharSequence target, int from, int to) {
+        int n = target.length();
+        if (n == 0) {
+            return from;
+        }
+        char first = target.charAt(0);
+        for (int i = from; i <= to - n; i++) {
+            if (s.charAt(i) == first && regionEquals(s, i, i + n, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean regionEquals(CharSequence s, int start, int end, CharSequence expected) {
+        int n = end - start;
+        if (n != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            if (s.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static long parseLong(CharSequence s, int start, int end) {
+        if (start >= end) {
+            throw new NumberFormatException("Empty field");
+        }
+        boolean negative = s.charAt(start) == '-';
+        int i = negative ? start + 1 : start;
+        if (i >= end) {
+            throw new NumberFormatException("No digits");
+        }
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a digit at " + i + ": " + s.charAt(i));
+            }
+            // 统一按负数累加，Long.MIN_VALUE也能表示
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("Overflow");
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("Overflow");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    /**
+     * 可复用的区间
+     */
+    public static final class Range {
+
+        public int start;
+        public int end;
+
+        public int length() {
+            return end - start;
+        }
+
+        public String toString(CharSequence source) {
+            return source.subSequence(start, end).toString();
+        }
+    }
+
+    /**
+     * 当前字段的CharSequence视图
+     */
+    final class View implements CharSequence {
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return source.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return source.subSequence(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return fieldAsString();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.kunbu.java.basic.base.string;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 大文件编码转换（GBK <-> UTF-8），按块读写，内存占用只和chunkSize有关，和文件大小无关
+ *
+ * 读写都用FileChannel + 堆外ByteBuffer，数据不经过byte[]中转；
+ * 没有用MappedByteBuffer：几个G的文件要分窗口映射，映射区要等GC才能释放（JDK8下只能反射调Cleaner），
+ * 顺序读的场景下positional read到direct buffer效果相当
+ *
+ * 块边界上的多字节字符：
+ *      decode(in, chars, endOfInput=false)遇到不完整的字节序列返回UNDERFLOW，剩下的字节compact()到缓冲开头，
+ *      和下一块读进来的字节拼起来继续解码；只有最后一块才传endOfInput=true，这时还不完整才算非法
+ *
+ * 并行（convertParallel）只支持UTF-8输入：
+ *      UTF-8的后续字节都是10xxxxxx，从任意位置往后最多跳3个字节就能对齐到字符开头，可以直接切分；
+ *      GBK的第二个字节范围是0x40~0xFE，和ASCII重叠，不从头扫描无法判断某个字节是首字节还是尾字节，所以只能顺序转换
+ *      每个分片先写到临时文件，最后按顺序transferTo拼接
+ *
+ * 默认遇到非法字节时抛IOException（带出错的字节位置），目标编码无法表示的字符抛UnmappableCharacterException，
+ * 导出文件宁可失败也不要悄悄变成?，
+ * 需要容错时传CodingErrorAction.REPLACE
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 16:00
+ **/
+public class FileTranscoder {
+
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Charset from;
+    private final Charset to;
+    private final int chunkSize;
+    private final CodingErrorAction onError;
+
+    public FileTranscoder(String from, String to) {
+        this(Transcoder.charset(from), Transcoder.charset(to), DEFAULT_CHUNK_SIZE, CodingErrorAction.REPORT);
+    }
+
+    public FileTranscoder(Charset from, Charset to, int chunkSize, CodingErrorAction onError) {
+        if (chunkSize < 16) {
+            throw new IllegalArgumentException("chunkSize too small: " + chunkSize);
+        }
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+        this.onError = onError;
+    }
+
+    /**
+     * 顺序转换
+     *
+     * @return 写出的字节数
+     */
+    public long convert(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return convert(in, skipBom(in), in.size(), out);
+        }
+    }
+
+    /**
+     * 按UTF-8字符边界切成parallelism段并行转换，输入不是UTF-8时退化为顺序转换
+     */
+    public long convertParallel(Path source, Path target, int parallelism) throws IOException {
+        if (!StandardCharsets.UTF_8.equals(from) || parallelism <= 1) {
+            return convert(source, target);
+        }
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            long start = skipBom(in);
+            long size = in.size();
+            // 太小的文件不值得切
+            int parts = (int) Math.max(1, Math.min(parallelism, (size - start) / chunkSize));
+            if (parts == 1) {
+                return convert(source, target);
+            }
+            long[] bounds = new long[parts + 1];
+            bounds[0] = start;
+            bounds[parts] = size;
+            for (int i = 1; i < parts; i++) {
+                bounds[i] = alignUtf8(in, Math.max(bounds[i - 1], start + (size - start) * i / parts));
+            }
+
+            List<Path> partFiles = new ArrayList<>(parts);
+            ExecutorService executor = Executors.newFixedThreadPool(parts,
+                    new ThreadFactoryBuilder().setNameFormat("file-transcoder-%d").setDaemon(true).build());
+            try {
+                List<Future<Long>> futures = new ArrayList<>(parts);
+                for (int i = 0; i < parts; i++) {
+                    Path part = target.resolveSibling(target.getFileName() + ".part" + i);
+                    partFiles.add(part);
+                    long partStart = bounds[i];
+                    long partEnd = bounds[i + 1];
+                    futures.add(executor.submit(() -> {
+                        try (FileChannel out = FileChannel.open(part, StandardOpenOption.WRITE,
+                                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                            // FileChannel的positional read是线程安全的，多个分片共用一个输入channel
+                            return convert(in, partStart, partEnd, out);
+                        }
+                    }));
+                }
+                for (Future<Long> future : futures) {
+                    future.get();
+                }
+                return concat(partFiles, target);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            } finally {
+                executor.shutdownNow();
+                for (Path part : partFiles) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * 转换[start, end)范围内的字节，写到out
+     */
+    long convert(FileChannel in, long start, long end, WritableByteChannel out) throws IOException {
+        CharsetDecoder decoder = from.newDecoder().onMalformedInput(onError).onUnmappableCharacter(onError);
+        CharsetEncoder encoder = to.newEncoder().onMalformedInput(onError).onUnmappableCharacter(onError);
+        ByteBuffer inBuf = ByteBuffer.allocateDirect(chunkSize);
+        CharBuffer chars = CharBuffer.allocate(chunkSize);
+        ByteBuffer outBuf = ByteBuffer.allocateDirect(chunkSize);
+
+        long position = start;
+        long written = 0;
+        boolean eof = false;
+        while (!eof) {
+            int max = (int) Math.min(inBuf.remaining(), end - position);
+            inBuf.limit(inBuf.position() + max);
+            int n = max == 0 ? -1 : in.read(inBuf, position);
+            if (n < 0) {
+                eof = true;
+            } else {
+                position += n;
+            }
+            inBuf.flip();
+            for (; ; ) {
+                CoderResult cr = decoder.decode(inBuf, chars, eof);
+                check(cr, position - inBuf.remaining());
+                written += encode(encoder, chars, outBuf, false, out);
+                if (!cr.isOverflow()) {
+                    break;
+                }
+            }
+            // 块尾不完整的字符留到下一轮
+            inBuf.compact();
+        }
+        while (decoder.flush(chars).isOverflow()) {
+            written += encode(encoder, chars, outBuf, false, out);
+        }
+        written += encode(encoder, chars, outBuf, true, out);
+        while (encoder.flush(outBuf).isOverflow()) {
+            written += write(outBuf, out);
+        }
+        written += write(outBuf, out);
+        return written;
+    }
+
+    /**
+     * 把chars里的字符编码写出，outBuf满了就先写盘
+     */
+    private long encode(CharsetEncoder encoder, CharBuffer chars, ByteBuffer outBuf, boolean endOfInput,
+                        WritableByteChannel out) throws IOException {
+        long written = 0;
+        chars.flip();
+        for (; ; ) {
+            CoderResult cr = encoder.encode(chars, outBuf, endOfInput);
+            check(cr, -1);
+            if (!cr.isOverflow()) {
+                break;
+            }
+            written += write(outBuf, out);
+        }
+        // 末尾可能剩一个等待配对的高代理项
+        chars.compact();
+        return written;
+    }
+
+    private static long write(ByteBuffer outBuf, WritableByteChannel out) throws IOException {
+        outBuf.flip();
+        long written = 0;
+        while (outBuf.hasRemaining()) {
+            written += out.write(outBuf);
+        }
+        outBuf.clear();
+        return written;
+    }
+
+    /**
+     * @param position 出错的字节位置，编码阶段不知道对应的输入位置，传-1
+     */
+    private static void check(CoderResult cr, long position) throws IOException {
+        if (!cr.isError()) {
+            return;
+        }
+        try {
+            cr.throwException();
+        } catch (CharacterCodingException e) {
+            if (position < 0) {
+                throw e;
+            }
+            throw new IOException("Malformed input at byte " + position + ", length " + cr.length(), e);
+        }
+    }
+
+    /**
+     * UTF-8输入跳过BOM（Excel导出的csv常带），否则BOM会被当成U+FEFF编码到目标文件里，GBK也表示不了
+     */
+    private long skipBom(FileChannel in) throws IOException {
+        if (!StandardCharsets.UTF_8.equals(from) || in.size() < UTF8_BOM.length) {
+            return 0;
+        }
+        ByteBuffer head = ByteBuffer.allocate(UTF8_BOM.length);
+        in.read(head, 0);
+        for (int i = 0; i < UTF8_BOM.length; i++) {
+            if (head.get(i) != UTF8_BOM[i]) {
+                return 0;
+            }
+        }
+        return UTF8_BOM.length;
+    }
+
+    /**
+     * 从position往后找到第一个不是10xxxxxx的字节，即UTF-8字符的开头
+     */
+    static long alignUtf8(FileChannel in, long position) throws IOException {
+        long size = in.size();
+        ByteBuffer probe = ByteBuffer.allocate(4);
+        in.read(probe, position);
+        for (int i = 0; i < probe.position(); i++) {
+            if ((probe.get(i) & 0xC0) != 0x80) {
+                return position + i;
+            }
+        }
+        // 4个字节都是后续字节，不是合法UTF-8，交给解码器去报错
+        return Math.min(position + probe.position(), size);
+    }
+
+    private static long concat(List<Path> parts, Path target) throws IOException {
+        long total = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Path part : parts) {
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                    total += size;
+                }
+            }
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("transcode");
+        Path utf8 = dir.resolve("export-utf8.csv");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            sb.append(i).append(",昆布,领航订单客服,kunbu\n");
+        }
+        Files.write(utf8, sb.toString().getBytes(StandardCharsets.UTF_8));
+
+        Path gbk = dir.resolve("export-gbk.csv");
+        Path back = dir.resolve("export-back.csv");
+        long start = System.currentTimeMillis();
+        new FileTranscoder(StringTest.CHARSET_UTF8, StringTest.CHARSET_GBK).convertParallel(utf8, gbk, 4);
+        new FileTranscoder(StringTest.CHARSET_GBK, StringTest.CHARSET_UTF8).convert(gbk, back);
+        System.out.println("cost: " + (System.currentTimeMillis() - start) + "ms");
+        System.out.println(Files.size(utf8) + " -> " + Files.size(gbk) + " -> " + Files.size(back));
+
+        byte[] expected = Files.readAllBytes(utf8);
+        byte[] actual = Files.readAllBytes(back);
+        System.out.println("same: " + java.util.Arrays.equals(expected, actual));
+
+        Files.delete(utf8);
+        Files.delete(gbk);
+        Files.delete(back);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,305 @@
+package com.kunbu.java.basic.base.string;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 多模式串查找（Aho-Corasick），一遍扫描找出所有关键字的所有出现位置
+ *
+ * StringTest.testIndexOf()对同一行分别indexOf(";")、indexOf("（")、indexOf("roleName")、indexOf("'")，
+ * 每个关键字都要从头扫一遍；这里把关键字建成自动机，每个字符只处理一次，和关键字个数无关
+ *
+ * 构建（一次性，可以有分配）：
+ *      1.关键字建trie
+ *      2.BFS求失败指针，并直接展开成完整的转移表（DFA），查找时不需要沿失败指针回退
+ *      3.每个状态能匹配的关键字（包括沿失败指针的后缀）展开成一维数组
+ *
+ * 查找（没有分配）：转移表是int[state * alphabet + class]，匹配结果通过MatchHandler回调给出，不创建结果对象
+ *
+ *      MultiPatternSearcher searcher = MultiPatternSearcher.of(";", "（", "roleName", "'");
+ *      searcher.search(line, (pattern, start, end) -> {...; return true;});
+ *
+ * 字符版本把出现在关键字里的字符压缩成小字母表（ASCII直接查表，其它二分查找），没出现过的字符都归为0类直接回到根；
+ * byte[]版本按UTF-8处理，关键字编码成UTF-8后另建一个256字母表的自动机，返回的位置是字节下标
+ *
+ * 实例不可变，可以多线程共享；lambda捕获局部变量时每次调用会新建对象，热点路径上的handler最好复用
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-21 14:00
+ **/
+public final class MultiPatternSearcher {
+
+    /**
+     * 匹配回调
+     */
+    public interface MatchHandler {
+
+        /**
+         * @param pattern 关键字下标（构建时的顺序）
+         * @param start   匹配开始位置（含）
+         * @param end     匹配结束位置（不含）
+         * @return false停止查找
+         */
+        boolean onMatch(int pattern, int start, int end);
+    }
+
+    private final String[] patterns;
+    private final int[] patternLengths;
+    private final int[] utf8Lengths;
+
+    /** ASCII字符的字母表类别，0表示不在任何关键字中 */
+    private final int[] asciiClass = new int[128];
+    /** 非ASCII字符按升序排列，类别为 asciiClassCount + 下标 + 1 */
+    private final char[] otherChars;
+    private final int alphabetSize;
+    private final int asciiClassCount;
+    private final Automaton chars;
+    private final Automaton bytes;
+
+    private MultiPatternSearcher(String[] patterns) {
+        this.patterns = patterns;
+        this.patternLengths = new int[patterns.length];
+        this.utf8Lengths = new int[patterns.length];
+
+        TreeSet<Character> others = new TreeSet<>();
+        int ascii = 0;
+        for (String p : patterns) {
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                if (c < 128) {
+                    if (asciiClass[c] == 0) {
+                        asciiClass[c] = ++ascii;
+                    }
+                } else {
+                    others.add(c);
+                }
+            }
+        }
+        this.asciiClassCount = ascii;
+        this.otherChars = new char[others.size()];
+        int k = 0;
+        for (char c : others) {
+            otherChars[k++] = c;
+        }
+        this.alphabetSize = ascii + otherChars.length + 1;
+
+        int[][] charKeys = new int[patterns.length][];
+        int[][] byteKeys = new int[patterns.length][];
+        for (int i = 0; i < patterns.length; i++) {
+            String p = patterns[i];
+            patternLengths[i] = p.length();
+            charKeys[i] = new int[p.length()];
+            for (int j = 0; j < p.length(); j++) {
+                charKeys[i][j] = classOf(p.charAt(j));
+            }
+            byte[] utf8 = p.getBytes(StandardCharsets.UTF_8);
+            utf8Lengths[i] = utf8.length;
+            byteKeys[i] = new int[utf8.length];
+            for (int j = 0; j < utf8.length; j++) {
+                byteKeys[i][j] = utf8[j] & 0xFF;
+            }
+        }
+        this.chars = Automaton.build(charKeys, alphabetSize);
+        this.bytes = Automaton.build(byteKeys, 256);
+    }
+
+    public static MultiPatternSearcher of(String... patterns) {
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("No patterns");
+        }
+        for (String p : patterns) {
+            if (p == null || p.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+        }
+        return new MultiPatternSearcher(patterns.clone());
+    }
+
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    public String pattern(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * @return 是否提前停止
+     */
+    public boolean search(CharSequence s, MatchHandler handler) {
+        return search(s, 0, s.length(), handler);
+    }
+
+    public boolean search(CharSequence s, int from, int to, MatchHandler handler) {
+        Automaton a = chars;
+        int[] next = a.next;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = next[state * alphabetSize + classOf(s.charAt(i))];
+            if (a.outputStart[state] != a.outputStart[state + 1] && !report(a, state, i + 1, patternLengths, handler)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean search(char[] s, int from, int to, MatchHandler handler) {
+        Automaton a = chars;
+        int[] next = a.next;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = next[state * alphabetSize + classOf(s[i])];
+            if (a.outputStart[state] != a.outputStart[state + 1] && !report(a, state, i + 1, patternLengths, handler)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在UTF-8字节中查找，start/end为字节下标
+     */
+    public boolean search(byte[] s, int from, int to, MatchHandler handler) {
+        Automaton a = bytes;
+        int[] next = a.next;
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = next[(state << 8) | (s[i] & 0xFF)];
+            if (a.outputStart[state] != a.outputStart[state + 1] && !report(a, state, i + 1, utf8Lengths, handler)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * from之后最先结束的匹配的开始位置，同位置结束的多个匹配取最长的关键字；没有返回-1
+     * 只是为了代替单个indexOf的简单场景，需要所有结果时用search
+     */
+    public int indexOfAny(CharSequence s, int from) {
+        Automaton a = chars;
+        int[] next = a.next;
+        int state = 0;
+        for (int i = from, n = s.length(); i < n; i++) {
+            state = next[state * alphabetSize + classOf(s.charAt(i))];
+            int o = a.outputStart[state];
+            if (o != a.outputStart[state + 1]) {
+                return i + 1 - patternLengths[a.outputs[o]];
+            }
+        }
+        return -1;
+    }
+
+    private static boolean report(Automaton a, int state, int end, int[] lengths, MatchHandler handler) {
+        for (int o = a.outputStart[state], last = a.outputStart[state + 1]; o < last; o++) {
+            int p = a.outputs[o];
+            if (!handler.onMatch(p, end - lengths[p], end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int i = Arrays.binarySearch(otherChars, c);
+        return i < 0 ? 0 : asciiClassCount + i + 1;
+    }
+
+    /**
+     * 展开成DFA的Aho-Corasick自动机，状态0为根
+     */
+    static final class Automaton {
+
+        /** next[state * alphabet + symbol] */
+        final int[] next;
+        /** 状态s匹配的关键字为 outputs[outputStart[s] .. outputStart[s + 1]) */
+        final int[] outputStart;
+        final int[] outputs;
+
+        private Automaton(int[] next, int[] outputStart, int[] outputs) {
+            this.next = next;
+            this.outputStart = outputStart;
+            this.outputs = outputs;
+        }
+
+        static Automaton build(int[][] keys, int alphabet) {
+            // trie，构建阶段用Map，状态数不确定
+            List<Map<Integer, Integer>> children = new ArrayList<>();
+            List<List<Integer>> own = new ArrayList<>();
+            children.add(new HashMap<>());
+            own.add(new ArrayList<>());
+            for (int p = 0; p < keys.length; p++) {
+                int state = 0;
+                for (int symbol : keys[p]) {
+                    Integer child = children.get(state).get(symbol);
+                    if (child == null) {
+                        child = children.size();
+                        children.add(new HashMap<>());
+                        own.add(new ArrayList<>());
+                        children.get(state).put(symbol, child);
+                    }
+                    state = child;
+                }
+                own.get(state).add(p);
+            }
+
+            int states = children.size();
+            int[] next = new int[states * alphabet];
+            int[] fail = new int[states];
+            List<List<Integer>> out = new ArrayList<>(states);
+            for (int s = 0; s < states; s++) {
+                out.add(new ArrayList<>(own.get(s)));
+            }
+
+            // BFS：父状态的转移已经完整，子状态的失败指针 = 父失败状态经同一符号的转移
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int c = 0; c < alphabet; c++) {
+                Integer child = children.get(0).get(c);
+                if (child != null) {
+                    next[c] = child;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                // 失败状态更浅，已经处理过，它的输出已经包含了更短的后缀
+                out.get(s).addAll(out.get(fail[s]));
+                for (int c = 0; c < alphabet; c++) {
+                    Integer child = children.get(s).get(c);
+                    if (child != null) {
+                        fail[child] = next[fail[s] * alphabet + c];
+                        next[s * alphabet + c] = child;
+                        queue.add(child);
+                    } else {
+                        next[s * alphabet + c] = next[fail[s] * alphabet + c];
+                    }
+                }
+            }
+
+            int[] outputStart = new int[states + 1];
+            int total = 0;
+            for (int s = 0; s < states; s++) {
+                outputStart[s] = total;
+                total += out.get(s).size();
+            }
+            outputStart[states] = total;
+            int[] outputs = new int[total];
+            for (int s = 0, k = 0; s < states; s++) {
+                for (int p : out.get(s)) {
+                    outputs[k++] = p;
+                }
+            }
+            return new Automaton(next, outputStart, outputs);
+        }
+    }
+}
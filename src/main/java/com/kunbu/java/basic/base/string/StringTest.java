@@ -55,6 +55,29 @@ public class StringTest {
 	}
 
 
+	/**
+	 * 和testGetBytes()同样的转换，用Transcoder：Charset和编解码器按线程缓存，不需要处理UnsupportedEncodingException
+	 **/
+	public static void testTranscoder() {
+		String chinese = "昆布";
+
+		byte[] byte2gbk = Transcoder.encode(chinese, CHARSET_GBK);
+		byte[] byte2utf8 = Transcoder.encode(chinese, CHARSET_UTF8);
+		System.out.println(Arrays.toString(byte2gbk));
+		System.out.println(Arrays.toString(byte2utf8));
+		System.out.println(Transcoder.decode(byte2gbk, CHARSET_GBK));
+
+		// Safari文件名：UTF-8字节按ISO解释，再转回来
+		String utf82iso = Transcoder.decode(byte2utf8, CHARSET_IOS);
+		System.out.println(utf82iso);
+		System.out.println(Transcoder.decode(Transcoder.encode(utf82iso, CHARSET_IOS), CHARSET_UTF8));
+
+		// GBK字节直接转UTF-8字节，中间不产生String
+		byte[] gbk2utf8 = Transcoder.transcode(byte2gbk, Transcoder.charset(CHARSET_GBK), Transcoder.charset(CHARSET_UTF8));
+		System.out.println(Arrays.equals(gbk2utf8, byte2utf8));
+	}
+
+
 	public static void testIndexOf() {
 		String origin = "org.apache.catalina.session.StandardSessionFacade@7147820e;admin;aGFkbGlua3MuY29t;";
 		String old = "编辑角色（必传参数:'id','roleName','roleMenuFunctionList'）";
@@ -81,6 +104,50 @@ public class StringTest {
 	}
 
 
+	/**
+	 * 和testIndexOf()同样的解析，用FieldTokenizer取字段，不产生子串和数组
+	 **/
+	public static void testTokenizer() {
+		String origin = "org.apache.catalina.session.StandardSessionFacade@7147820e;admin;aGFkbGlua3MuY29t;";
+		String str = "null',roleName='领航订单客服'}menuId=";
+		String splitterStr = "A0BC92D94BD82755F807CBC1B78A0AFF;865533033393442;null;0865533033110341;";
+
+		FieldTokenizer tokenizer = new FieldTokenizer(';');
+		// 第二个字段
+		if (tokenizer.reset(origin).skip(1)) {
+			System.out.println(tokenizer.field());
+		}
+
+		FieldTokenizer.Range range = new FieldTokenizer.Range();
+		if (FieldTokenizer.findQuoted(str, "roleName", '\'', range)) {
+			System.out.println(range.toString(str));
+		}
+
+		tokenizer.reset(splitterStr);
+		int count = 0;
+		while (tokenizer.next()) {
+			if (!tokenizer.fieldEquals("null")) {
+				System.out.println(tokenizer.start() + "-" + tokenizer.end() + ": " + tokenizer.field());
+			}
+			count++;
+		}
+		System.out.println(count);
+	}
+
+
+	/**
+	 * testIndexOf()里对同一个字符串分别indexOf几个关键字，换成多模式查找只扫一遍
+	 **/
+	public static void testMultiPattern() {
+		String str = "null',roleName='领航订单客服'}menuId=";
+		MultiPatternSearcher searcher = MultiPatternSearcher.of(";", "（", "roleName", "'");
+		searcher.search(str, (pattern, start, end) -> {
+			System.out.println(searcher.pattern(pattern) + ": " + start + "-" + end);
+			return true;
+		});
+	}
+
+
 	private static String subStringContent(String target, String origin) {
 		int beginIndex = origin.indexOf(target);
 		if (beginIndex > 0) {
@@ -104,6 +171,8 @@ public class StringTest {
 
 		String lowerStr = "1z&u2";
 		System.out.println("upper: " + lowerStr.toUpperCase());
+		// 纯ASCII走快速路径，且不受默认Locale影响
+		System.out.println("upper: " + AsciiCase.toUpperCase(lowerStr));
 	}
 	
 }
@@ -0,0 +1,303 @@
+package com.kunbu.java.basic.base.string;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编码转换工具，替代StringTest.testGetBytes()里的 getBytes(charsetName) / new String(bytes, charsetName)
+ *
+ * 按名字转换每次都要：
+ *      1.Charset.forName查找（JDK只缓存最近两个，GBK/UTF-8/ISO来回切换时基本都会落到查表）
+ *      2.新建CharsetEncoder/CharsetDecoder
+ *      3.按maxBytesPerChar分配中间数组，编码后再截断拷贝一次
+ *
+ * 这里：
+ *      1.名字到Charset用ConcurrentHashMap缓存
+ *      2.每个线程缓存自己的encoder/decoder（它们不是线程安全的，不能全局共享）
+ *      3.每个线程复用一块ByteBuffer/CharBuffer作为中间缓冲，输出时只拷贝一次到结果数组
+ *      4.超过MAX_POOLED的大输入不进池，走流式transcode(InputStream, ..., OutputStream, ...)，内存占用固定
+ *
+ * 非法字符和String一样替换（REPLACE），不抛异常；需要严格校验时用decodeStrict
+ *
+ * PS：JDK9之后String对UTF-8/ISO-8859-1的getBytes(Charset)有专门的快速路径，这两个编码用Charset重载差距不大，
+ *     收益主要在GBK等其他编码，以及按名字调用的场景，具体数据见TranscoderBenchmark
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 14:00
+ **/
+public final class Transcoder {
+
+    /** 线程缓冲的上限，超过的按需分配，用完不保留，避免一次大请求让每个线程都挂着大数组 */
+    static final int MAX_POOLED = 64 * 1024;
+    /** 流式转换每次读取的字节数 */
+    static final int STREAM_CHUNK = 8 * 1024;
+
+    private static final Map<String, Charset> CHARSETS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private Transcoder() {
+    }
+
+    public static Charset charset(String name) {
+        Charset charset = CHARSETS.get(name);
+        if (charset == null) {
+            // 名字不合法时Charset.forName抛UnsupportedCharsetException，不缓存
+            charset = Charset.forName(name);
+            CHARSETS.putIfAbsent(name, charset);
+        }
+        return charset;
+    }
+
+    public static byte[] encode(CharSequence s, String charsetName) {
+        return encode(s, charset(charsetName));
+    }
+
+    /**
+     * 同 s.getBytes(charset)
+     */
+    public static byte[] encode(CharSequence s, Charset charset) {
+        Context ctx = CONTEXT.get();
+        CharsetEncoder encoder = ctx.encoder(charset);
+        CharBuffer in = s instanceof String ? ctx.chars((String) s) : CharBuffer.wrap(s);
+        ByteBuffer out = ctx.bytes((int) (in.remaining() * (double) encoder.maxBytesPerChar()));
+        out = encode(encoder, in, out);
+        out.flip();
+        byte[] result = new byte[out.remaining()];
+        out.get(result);
+        return result;
+    }
+
+    public static String decode(byte[] bytes, String charsetName) {
+        return decode(bytes, 0, bytes.length, charset(charsetName));
+    }
+
+    public static String decode(byte[] bytes, Charset charset) {
+        return decode(bytes, 0, bytes.length, charset);
+    }
+
+    /**
+     * 同 new String(bytes, offset, length, charset)
+     */
+    public static String decode(byte[] bytes, int offset, int length, Charset charset) {
+        Context ctx = CONTEXT.get();
+        CharsetDecoder decoder = ctx.decoder(charset);
+        ByteBuffer in = ByteBuffer.wrap(bytes, offset, length);
+        CharBuffer out = ctx.chars((int) (length * (double) decoder.maxCharsPerByte()));
+        out = decode(decoder, in, out);
+        out.flip();
+        return out.toString();
+    }
+
+    /**
+     * 遇到非法字节时抛CharacterCodingException，用于校验输入是否确实是某种编码
+     */
+    public static String decodeStrict(byte[] bytes, Charset charset) throws CharacterCodingException {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(bytes))
+                .toString();
+    }
+
+    /**
+     * 字节数组从一种编码转成另一种，中间的字符只放在线程缓冲里，不产生String
+     * 如Safari文件名：transcode(name.getBytes(UTF_8), UTF_8, ISO_8859_1)
+     */
+    public static byte[] transcode(byte[] bytes, Charset from, Charset to) {
+        if (from.equals(to)) {
+            return bytes.clone();
+        }
+        Context ctx = CONTEXT.get();
+        CharsetDecoder decoder = ctx.decoder(from);
+        CharBuffer chars = ctx.chars((int) (bytes.length * (double) decoder.maxCharsPerByte()));
+        chars = decode(decoder, ByteBuffer.wrap(bytes), chars);
+        chars.flip();
+        CharsetEncoder encoder = ctx.encoder(to);
+        // chars可能就是线程缓冲，编码结果放到另一块缓冲里
+        ByteBuffer out = ctx.bytes((int) (chars.remaining() * (double) encoder.maxBytesPerChar()));
+        out = encode(encoder, chars, out);
+        out.flip();
+        byte[] result = new byte[out.remaining()];
+        out.get(result);
+        return result;
+    }
+
+    /**
+     * 流式转换，内存占用和输入大小无关；不关闭流
+     *
+     * 跨块的多字节字符：decode(..., endOfInput=false)遇到不完整的字节序列会停下返回UNDERFLOW，
+     * 剩下的几个字节留在in里，compact()挪到开头和下一块拼起来再解码
+     *
+     * @return 写出的字节数
+     */
+    public static long transcode(InputStream input, Charset from, OutputStream output, Charset to) throws IOException {
+        CharsetDecoder decoder = from.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharsetEncoder encoder = to.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        byte[] readBuffer = new byte[STREAM_CHUNK];
+        ByteBuffer in = ByteBuffer.wrap(readBuffer);
+        CharBuffer chars = CharBuffer.allocate((int) (STREAM_CHUNK * (double) decoder.maxCharsPerByte()) + 1);
+        byte[] writeBuffer = new byte[(int) (chars.capacity() * (double) encoder.maxBytesPerChar()) + 16];
+        ByteBuffer out = ByteBuffer.wrap(writeBuffer);
+
+        long written = 0;
+        boolean eof = false;
+        boolean decoded = false;
+        boolean encoded = false;
+        while (!encoded) {
+            if (!eof) {
+                int n = input.read(readBuffer, in.position(), in.remaining());
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    in.position(in.position() + n);
+                }
+            }
+            if (!decoded) {
+                in.flip();
+                CoderResult cr = decoder.decode(in, chars, eof);
+                // 输入结束且全部解码完才flush，flush之后不能再decode
+                decoded = eof && cr.isUnderflow() && decoder.flush(chars).isUnderflow();
+                in.compact();
+            }
+
+            chars.flip();
+            CoderResult cr = encoder.encode(chars, out, decoded);
+            encoded = decoded && cr.isUnderflow() && !chars.hasRemaining() && encoder.flush(out).isUnderflow();
+            chars.compact();
+
+            output.write(writeBuffer, 0, out.position());
+            written += out.position();
+            out.clear();
+        }
+        return written;
+    }
+
+    private static ByteBuffer encode(CharsetEncoder encoder, CharBuffer in, ByteBuffer out) {
+        encoder.reset();
+        for (; ; ) {
+            CoderResult cr = in.hasRemaining() ? encoder.encode(in, out, true) : CoderResult.UNDERFLOW;
+            if (cr.isUnderflow()) {
+                cr = encoder.flush(out);
+            }
+            if (cr.isUnderflow()) {
+                return out;
+            }
+            // REPLACE模式下只会是OVERFLOW，maxBytesPerChar是上限，正常不会走到这里
+            out = grow(out);
+        }
+    }
+
+    private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out) {
+        decoder.reset();
+        for (; ; ) {
+            CoderResult cr = in.hasRemaining() ? decoder.decode(in, out, true) : CoderResult.UNDERFLOW;
+            if (cr.isUnderflow()) {
+                cr = decoder.flush(out);
+            }
+            if (cr.isUnderflow()) {
+                return out;
+            }
+            out = grow(out);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2 + 16);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+    private static CharBuffer grow(CharBuffer buffer) {
+        CharBuffer bigger = CharBuffer.allocate(buffer.capacity() * 2 + 16);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+    /**
+     * 线程私有的编解码器和缓冲
+     */
+    static final class Context {
+
+        private final Map<Charset, CharsetEncoder> encoders = new HashMap<>();
+        private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+        private ByteBuffer bytes = ByteBuffer.allocate(1024);
+        private CharBuffer chars = CharBuffer.allocate(1024);
+
+        CharsetEncoder encoder(Charset charset) {
+            CharsetEncoder encoder = encoders.get(charset);
+            if (encoder == null) {
+                encoder = charset.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                encoders.put(charset, encoder);
+            }
+            return encoder;
+        }
+
+        CharsetDecoder decoder(Charset charset) {
+            CharsetDecoder decoder = decoders.get(charset);
+            if (decoder == null) {
+                decoder = charset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                decoders.put(charset, decoder);
+            }
+            return decoder;
+        }
+
+        /**
+         * 清空后的线程字节缓冲，超过MAX_POOLED时返回临时分配的
+         */
+        ByteBuffer bytes(int capacity) {
+            if (capacity > MAX_POOLED) {
+                return ByteBuffer.allocate(capacity);
+            }
+            if (bytes.capacity() < capacity) {
+                bytes = ByteBuffer.allocate(Math.min(Integer.highestOneBit(capacity - 1) << 1, MAX_POOLED));
+            }
+            bytes.clear();
+            return bytes;
+        }
+
+        CharBuffer chars(int capacity) {
+            if (capacity > MAX_POOLED) {
+                return CharBuffer.allocate(capacity);
+            }
+            if (chars.capacity() < capacity) {
+                chars = CharBuffer.allocate(Math.min(Integer.highestOneBit(capacity - 1) << 1, MAX_POOLED));
+            }
+            chars.clear();
+            return chars;
+        }
+
+        /**
+         * 把String拷进线程字符缓冲，省掉CharBuffer.wrap(String)的包装对象（只读，编码时还要逐个charAt）
+         */
+        CharBuffer chars(String s) {
+            int length = s.length();
+            CharBuffer buffer = chars(length);
+            s.getChars(0, length, buffer.array(), 0);
+            buffer.limit(length);
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界的ForkJoinPool，用于CPU密集型任务
+ *
+ * 和ThreadPoolExecutor的区别：每个工作线程有自己的双端队列，fork出的子任务压入自己队列，空闲线程从别人队列尾部窃取，
+ * 不再所有线程争一个队列的锁。
+ *
+ * ForkJoinPool外部提交的队列是无界的，这里用计数器限制外部提交、尚未执行完的任务数（排队 + 执行中），
+ * 超过后抛RejectedExecutionException，和getThreadPool()的LinkedBlockingDeque(1024) + AbortPolicy保持一致。
+ * 不用getQueuedSubmissionCount()：它是不加锁扫描各队列的估计值，并发提交时都能通过检查，上限形同虚设。
+ *
+ *      1.提交前CAS预留名额，任务包装成Admission，执行结束（包括异常）时归还；提交失败立即归还
+ *      2.invokeAll/invokeAny的一批任务一次预留，放不下就整批拒绝，不会只提交一部分，这几个方法都自己实现，
+ *        不依赖不同JDK版本里父类是逐个走execute()还是直接入队
+ *      3.工作线程内部fork/提交不计数，不受限制
+ *
+ * JDK19+新增的lazySubmit()等方法不在上限内
+ * 关闭同样可以用ThreadPool.closePool()；shutdownNow()丢弃的排队任务不会归还名额，关闭后也不再接受提交
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 09:30
+ **/
+public class BoundedForkJoinPool extends ForkJoinPool {
+
+    private final int maxQueuedSubmissions;
+    /** 已预留名额的外部任务数 */
+    private final AtomicInteger admitted = new AtomicInteger();
+
+    public BoundedForkJoinPool(int parallelism, int maxQueuedSubmissions, String namePrefix) {
+        super(parallelism, new NamedWorkerThreadFactory(namePrefix), null, false);
+        this.maxQueuedSubmissions = maxQueuedSubmissions;
+    }
+
+    @Override
+    public <T> T invoke(ForkJoinTask<T> task) {
+        if (!admit(1)) {
+            return super.invoke(task);
+        }
+        push(task);
+        return task.join();
+    }
+
+    @Override
+    public void execute(ForkJoinTask<?> task) {
+        if (!admit(1)) {
+            super.execute(task);
+            return;
+        }
+        push(task);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task instanceof ForkJoinTask) {
+            execute((ForkJoinTask<?>) task);
+            return;
+        }
+        if (!admit(1)) {
+            super.execute(task);
+            return;
+        }
+        push(new Admission(task));
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(ForkJoinTask<T> task) {
+        if (!admit(1)) {
+            return super.submit(task);
+        }
+        push(task);
+        return task;
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Callable<T> task) {
+        return submit(ForkJoinTask.adapt(task));
+    }
+
+    @Override
+    public <T> ForkJoinTask<T> submit(Runnable task, T result) {
+        return submit(ForkJoinTask.adapt(task, result));
+    }
+
+    @Override
+    public ForkJoinTask<?> submit(Runnable task) {
+        if (task instanceof ForkJoinTask) {
+            return submit((ForkJoinTask<?>) task);
+        }
+        return submit(ForkJoinTask.adapt(task));
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) {
+        if (!admit(tasks.size())) {
+            return super.invokeAll(tasks);
+        }
+        List<ForkJoinTask<T>> futures = pushAll(tasks);
+        for (ForkJoinTask<T> f : futures) {
+            f.quietlyJoin();
+        }
+        return new ArrayList<Future<T>>(futures);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (!admit(tasks.size())) {
+            return super.invokeAll(tasks, timeout, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        List<ForkJoinTask<T>> futures = pushAll(tasks);
+        boolean done = false;
+        try {
+            for (ForkJoinTask<T> f : futures) {
+                long remaining = deadline - System.nanoTime();
+                if (!f.isDone()) {
+                    if (remaining <= 0) {
+                        return new ArrayList<Future<T>>(futures);
+                    }
+                    try {
+                        f.get(remaining, TimeUnit.NANOSECONDS);
+                    } catch (ExecutionException | CancellationException ignore) {
+                        // 结果在Future里
+                    } catch (TimeoutException e) {
+                        return new ArrayList<Future<T>>(futures);
+                    }
+                }
+            }
+            done = true;
+            return new ArrayList<Future<T>>(futures);
+        } finally {
+            if (!done) {
+                for (ForkJoinTask<T> f : futures) {
+                    f.cancel(false);
+                }
+            }
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        if (!admit(tasks.size())) {
+            return super.invokeAny(tasks);
+        }
+        try {
+            return doInvokeAny(tasks, false, 0L);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!admit(tasks.size())) {
+            return super.invokeAny(tasks, timeout, unit);
+        }
+        return doInvokeAny(tasks, true, unit.toNanos(timeout));
+    }
+
+    public int getAdmittedCount() {
+        return admitted.get();
+    }
+
+    /**
+     * 外部线程预留count个名额，名额不足抛RejectedExecutionException；本池的工作线程不计数，返回false
+     */
+    private boolean admit(int count) {
+        Thread t = Thread.currentThread();
+        if (t instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) t).getPool() == this) {
+            return false;
+        }
+        for (;;) {
+            int current = admitted.get();
+            if (current + (long) count > maxQueuedSubmissions) {
+                throw new RejectedExecutionException("Admitted submissions reached " + maxQueuedSubmissions + " in " + this);
+            }
+            if (admitted.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 提交一个已预留名额的任务，提交失败（如已关闭）归还名额
+     */
+    private void push(ForkJoinTask<?> task) {
+        ForkJoinTask<?> job = task instanceof Admission ? task : new Admission(task::quietlyInvoke);
+        try {
+            super.execute(job);
+        } catch (RuntimeException | Error e) {
+            admitted.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * 提交一批已整体预留名额的任务，中途失败时取消已提交的任务并归还剩余名额
+     */
+    private <T> List<ForkJoinTask<T>> pushAll(Collection<? extends Callable<T>> tasks) {
+        List<ForkJoinTask<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(ForkJoinTask.adapt(task));
+        }
+        int pushed = 0;
+        try {
+            for (ForkJoinTask<T> f : futures) {
+                super.execute(new Admission(f::quietlyInvoke));
+                pushed++;
+            }
+        } catch (RuntimeException | Error e) {
+            admitted.addAndGet(pushed - futures.size());
+            for (ForkJoinTask<T> f : futures) {
+                f.cancel(false);
+            }
+            throw e;
+        }
+        return futures;
+    }
+
+    /**
+     * 返回第一个正常完成的结果，其余任务取消；全部失败时抛最后一个异常
+     */
+    private <T> T doInvokeAny(Collection<? extends Callable<T>> tasks, boolean timed, long nanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        int n = tasks.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("No tasks");
+        }
+        long deadline = timed ? System.nanoTime() + nanos : 0L;
+        ExecutorCompletionService<T> ecs = new ExecutorCompletionService<>(
+                command -> BoundedForkJoinPool.super.execute(new Admission(command)));
+        List<Future<T>> futures = new ArrayList<>(n);
+        try {
+            try {
+                for (Callable<T> task : tasks) {
+                    futures.add(ecs.submit(task));
+                }
+            } catch (RuntimeException | Error e) {
+                admitted.addAndGet(futures.size() - n);
+                throw e;
+            }
+            ExecutionException failure = null;
+            for (int i = 0; i < n; i++) {
+                Future<T> f;
+                if (timed) {
+                    f = ecs.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (f == null) {
+                        throw new TimeoutException();
+                    }
+                } else {
+                    f = ecs.take();
+                }
+                try {
+                    return f.get();
+                } catch (ExecutionException e) {
+                    failure = e;
+                }
+            }
+            throw failure;
+        } finally {
+            for (Future<T> f : futures) {
+                f.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 占用一个名额的外部任务，执行结束时归还；普通Runnable的异常交给线程的UncaughtExceptionHandler，
+     * 和ForkJoinPool.execute(Runnable)一致
+     */
+    private final class Admission extends ForkJoinTask<Void> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Runnable action;
+
+        Admission(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public Void getRawResult() {
+            return null;
+        }
+
+        @Override
+        protected void setRawResult(Void value) {
+        }
+
+        @Override
+        protected boolean exec() {
+            try {
+                action.run();
+            } catch (Throwable e) {
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, e);
+            } finally {
+                admitted.decrementAndGet();
+            }
+            return true;
+        }
+    }
+
+    static class NamedWorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger index = new AtomicInteger();
+
+        NamedWorkerThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(namePrefix + index.getAndIncrement());
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 协作式取消，把ThreadInterrupt里的两种做法（isInterrupted()轮询 / volatile标记）合成一个可复用的API
+ *
+ *      1.检查：isCancelled()只是一次volatile读，可以放在紧凑循环里；throwIfCancelled()用于直接跳出多层调用
+ *      2.父子：child()创建子令牌，父取消时级联取消所有子令牌（向下推送，所以子令牌检查时不需要回溯父节点），子取消不影响父
+ *      3.线程池：submit()为每个任务创建一个子令牌，token.cancel()经子令牌调用future.cancel(true)中断任务线程；
+ *        反过来future.cancel()只取消这个子令牌，不影响同一token下的其他任务。任务结束时注销回调并摘除子令牌，
+ *        长生命周期的token不会攒下所有提交过的future
+ *      4.空闲：idle()代替空转的while，park到超时或被取消为止，不占CPU
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 15:30
+ **/
+public class CancellationToken {
+
+    private final CancellationToken parent;
+    private final Set<CancellationToken> children = ConcurrentHashMap.newKeySet();
+    private final Set<Registration> callbacks = ConcurrentHashMap.newKeySet();
+    private final Set<Thread> idlers = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean cancelled;
+    private volatile String reason;
+
+    private CancellationToken(CancellationToken parent) {
+        this.parent = parent;
+    }
+
+    public static CancellationToken create() {
+        return new CancellationToken(null);
+    }
+
+    /**
+     * 子令牌，父已取消时直接返回已取消的子令牌；子令牌用完调用close()从父节点摘除，避免长生命周期的父令牌堆积
+     */
+    public CancellationToken child() {
+        CancellationToken child = new CancellationToken(this);
+        children.add(child);
+        // 先登记再检查，避免和cancel()并发时漏掉级联
+        if (cancelled) {
+            child.cancel(reason);
+        }
+        return child;
+    }
+
+    public void close() {
+        if (parent != null) {
+            parent.children.remove(this);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException(reason);
+        }
+    }
+
+    public boolean cancel() {
+        return cancel("cancelled");
+    }
+
+    /**
+     * @return 是否由本次调用完成取消
+     */
+    public boolean cancel(String reason) {
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            this.reason = reason;
+            cancelled = true;
+        }
+        for (Thread t : idlers) {
+            LockSupport.unpark(t);
+        }
+        for (CancellationToken child : children) {
+            child.cancel(reason);
+        }
+        children.clear();
+        for (Registration callback : callbacks) {
+            callback.fire();
+        }
+        callbacks.clear();
+        return true;
+    }
+
+    /**
+     * 取消时回调，已取消则立即执行
+     *
+     * 和cancel()并发时，回调可能在cancel()遍历之后、clear()之前登记，被clear()清掉；
+     * 所以登记后只要看到cancelled就自己执行一次，由Registration保证最多执行一次
+     *
+     * @return 用于注销回调，不再需要时调用remove()
+     */
+    public Registration onCancel(Runnable callback) {
+        Registration registration = new Registration(this, callback);
+        callbacks.add(registration);
+        if (cancelled) {
+            registration.fire();
+        }
+        return registration;
+    }
+
+    /**
+     * 空闲等待，直到超时、被取消或线程被中断
+     *
+     * @return 是否已取消
+     */
+    public boolean idle(long timeout, TimeUnit unit) {
+        if (cancelled) {
+            return true;
+        }
+        Thread current = Thread.currentThread();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        idlers.add(current);
+        try {
+            long remaining;
+            while (!cancelled && !current.isInterrupted() && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            idlers.remove(current);
+        }
+        return cancelled;
+    }
+
+    /**
+     * 提交到线程池，并把token和future的取消互相关联；关联的是每个任务自己的子令牌
+     */
+    public <V> Future<V> submit(ExecutorService pool, Callable<V> task) {
+        CancellationToken scope = child();
+        CancellableTask<V> future = new CancellableTask<>(task, scope);
+        // token已取消时回调立即执行，future在提交前就是取消状态，execute后run()直接返回
+        future.registration = scope.onCancel(() -> future.cancel(true));
+        if (future.isDone()) {
+            future.registration.remove();
+        }
+        try {
+            pool.execute(future);
+        } catch (RejectedExecutionException e) {
+            // 任务永远不会执行，done()也不会被调用
+            future.registration.remove();
+            scope.close();
+            throw e;
+        }
+        return future;
+    }
+
+    public Future<?> submit(ExecutorService pool, Runnable task) {
+        return submit(pool, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * onCancel()登记的回调，最多执行一次
+     */
+    public static final class Registration {
+
+        private final CancellationToken token;
+        private final Runnable callback;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Registration(CancellationToken token, Runnable callback) {
+            this.token = token;
+            this.callback = callback;
+        }
+
+        /**
+         * @return 回调还没执行过，并且以后也不会再执行
+         */
+        public boolean remove() {
+            token.callbacks.remove(this);
+            return done.compareAndSet(false, true);
+        }
+
+        void fire() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            token.callbacks.remove(this);
+            try {
+                callback.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * future被取消（含cancel(true)）时同步取消它的子令牌，结束时注销回调并从父令牌摘除子令牌
+     */
+    static class CancellableTask<V> extends FutureTask<V> {
+
+        private final CancellationToken scope;
+        /** token已取消时done()在赋值之前就被调用了，由submit()补一次remove() */
+        volatile Registration registration;
+
+        CancellableTask(Callable<V> callable, CancellationToken scope) {
+            super(callable);
+            this.scope = scope;
+        }
+
+        @Override
+        protected void done() {
+            Registration r = registration;
+            if (r != null) {
+                r.remove();
+            }
+            if (isCancelled()) {
+                scope.cancel("future cancelled");
+            }
+            scope.close();
+        }
+    }
+}
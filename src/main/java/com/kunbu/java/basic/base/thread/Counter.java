@@ -0,0 +1,29 @@
+package com.kunbu.java.basic.base.thread;
+
+/**
+ * 计数器，实现见Counters
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 17:10
+ **/
+public interface Counter {
+
+    void add(long delta);
+
+    default void increment() {
+        add(1L);
+    }
+
+    /**
+     * 并发修改时读到的是某一时刻附近的值，不保证是精确快照（Synchronized和Atomic除外）；
+     * PER_THREAD还不包含各线程本地攒着、尚未flush()的增量
+     */
+    long get();
+
+    /**
+     * 把当前线程本地攒着的增量写回共享状态，线程退出前调用；只有PER_THREAD需要，其他实现什么也不做
+     */
+    default void flush() {
+    }
+}
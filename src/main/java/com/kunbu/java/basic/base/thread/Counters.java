@@ -0,0 +1,210 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 几种计数器实现，对比Synchronized.addCount()在多核下的扩展性
+ *
+ *      1.SYNCHRONIZED：同Synchronized，所有线程争一把对象锁，竞争激烈时膨胀为重量级锁，线程挂起/唤醒
+ *      2.ATOMIC：一个AtomicLong，CAS不挂起线程，但所有核写同一缓存行，缓存行在核间来回失效，核越多CAS失败重试越多
+ *      3.STRIPED：LongAdder，按线程探针分散到多个Cell（@Contended避免伪共享），sum()时累加，写多读少首选
+ *      4.PER_THREAD：每个线程先在本地攒增量，每FLUSH_THRESHOLD次才写一次自己独占的计数格（lazySet），
+ *        get()遍历所有线程的格子求和，线程数固定的场景最快；代价是get()最多少算每个线程FLUSH_THRESHOLD - 1次，
+ *        线程退出前要调用flush()
+ *
+ * 热点指标（QPS、字节数等）一般选STRIPED；需要精确且读多写少时用ATOMIC
+ * 基准测试见benchmark模块CounterBenchmark
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 17:10
+ **/
+public class Counters {
+
+    public enum Type {
+        SYNCHRONIZED,
+        ATOMIC,
+        STRIPED,
+        PER_THREAD
+    }
+
+    public static Counter create(Type type) {
+        switch (type) {
+            case SYNCHRONIZED:
+                return new SynchronizedCounter();
+            case ATOMIC:
+                return new AtomicCounter();
+            case STRIPED:
+                return new StripedCounter();
+            case PER_THREAD:
+                return new PerThreadCounter();
+            default:
+                throw new IllegalArgumentException(String.valueOf(type));
+        }
+    }
+
+    static class SynchronizedCounter implements Counter {
+
+        private long count;
+
+        @Override
+        public synchronized void add(long delta) {
+            count += delta;
+        }
+
+        @Override
+        public synchronized long get() {
+            return count;
+        }
+    }
+
+    static class AtomicCounter implements Counter {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void add(long delta) {
+            count.addAndGet(delta);
+        }
+
+        @Override
+        public long get() {
+            return count.get();
+        }
+    }
+
+    static class StripedCounter implements Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void add(long delta) {
+            count.add(delta);
+        }
+
+        @Override
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * 批量计数：每个线程第一次写时登记一个Cell，增量先累加在线程私有的Batch里，每FLUSH_THRESHOLD次写回一次Cell
+     *
+     * Cell只有所属线程写，所以不需要CAS，lazySet保证其他线程最终可见即可；批量之后写共享缓存行的次数也降到1/FLUSH_THRESHOLD，
+     * 读线程get()时不会每次都和写线程争同一缓存行。
+     * 线程结束后Cell仍保留在列表中，已flush的数不会丢，没flush的会丢。适合线程数有限且稳定的场景（如线程池），否则列表会一直增长
+     */
+    static class PerThreadCounter implements Counter {
+
+        static final int FLUSH_THRESHOLD = 64;
+
+        private final CopyOnWriteArrayList<Cell> cells = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<Batch> local = ThreadLocal.withInitial(this::register);
+
+        private Batch register() {
+            Cell cell = new Cell();
+            cells.add(cell);
+            return new Batch(cell);
+        }
+
+        @Override
+        public void add(long delta) {
+            Batch batch = local.get();
+            batch.pending += delta;
+            if (++batch.count >= FLUSH_THRESHOLD) {
+                batch.flush();
+            }
+        }
+
+        @Override
+        public void flush() {
+            local.get().flush();
+        }
+
+        @Override
+        public long get() {
+            long sum = 0L;
+            for (Cell cell : cells) {
+                sum += cell.value;
+            }
+            return sum;
+        }
+
+        /**
+         * 线程私有，只有所属线程读写，不需要volatile和填充
+         */
+        static final class Batch {
+
+            final Cell cell;
+            long pending;
+            int count;
+
+            Batch(Cell cell) {
+                this.cell = cell;
+            }
+
+            void flush() {
+                if (count == 0) {
+                    return;
+                }
+                CellValue.VALUE.lazySet(cell, cell.value + pending);
+                pending = 0;
+                count = 0;
+            }
+        }
+
+        /**
+         * 前后各填充7个long，使value独占一个64字节的缓存行，避免相邻Cell伪共享。
+         * 同一个类里的字段JVM可以重排（JDK15起还会把字段塞进父类的空隙），填充放进不同层级的类，
+         * 父类字段总在子类字段之前，和Disruptor的Sequence（LhsPadding/Value/RhsPadding）一样；
+         * -XX:-RestrictContended时也可以直接用@sun.misc.Contended
+         */
+        @SuppressWarnings("unused")
+        static class CellPadLeft {
+
+            long p1, p2, p3, p4, p5, p6, p7;
+        }
+
+        static class CellValue extends CellPadLeft {
+
+            static final AtomicLongFieldUpdater<CellValue> VALUE =
+                    AtomicLongFieldUpdater.newUpdater(CellValue.class, "value");
+
+            volatile long value;
+        }
+
+        @SuppressWarnings("unused")
+        static final class Cell extends CellValue {
+
+            long q1, q2, q3, q4, q5, q6, q7;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int perThread = 10_000_000;
+        for (Type type : Type.values()) {
+            Counter counter = create(type);
+            Thread[] workers = new Thread[threads];
+            long start = System.nanoTime();
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(() -> {
+                    for (int j = 0; j < perThread; j++) {
+                        counter.increment();
+                    }
+                    counter.flush();
+                });
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long cost = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(type + " threads=" + threads + " count=" + counter.get() + " cost=" + cost + "ms");
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.kunbu.java.basic.base.thread;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 模拟死锁
  * 
- * 通过jps + jstack可以查找
+ * 通过jps + jstack可以查找，也可以在进程内用DeadlockWatchdog定时检测
+ * 测试时换成OrderedLock并打开检查，第二个线程反序加锁时直接抛出LockOrderException，不用等到真的死锁
  *
  * @author Scosyf
  * @date 2018年11月18日 下午8:38:52
@@ -12,6 +15,7 @@ package com.kunbu.java.basic.base.thread;
 public class DeadLock {
 
     public static void main(String[] args) throws InterruptedException {
+        DeadlockWatchdog watchdog = new DeadlockWatchdog().start(1, TimeUnit.SECONDS);
         DeadLock deadLock = new DeadLock();
         
         new Thread(() -> {
@@ -29,7 +33,36 @@ public class DeadLock {
                 e.printStackTrace();
             }
         }, "data").start();
-        
+
+        Thread.sleep(5000);
+        System.out.println("采样次数：" + watchdog.getSampleCount() + "，平均耗时：" + watchdog.getAvgSampleNanos() + "ns");
+    }
+
+    /**
+     * 同样的反序加锁，换成OrderedLock，先后执行（不会真的死锁），第二次就能发现顺序反转
+     */
+    public static void orderedLock() {
+        OrderedLock.setChecking(true);
+        OrderedLock resource = new OrderedLock("resource");
+        OrderedLock data = new OrderedLock("data");
+
+        resource.lock();
+        try {
+            data.lock();
+            data.unlock();
+        } finally {
+            resource.unlock();
+        }
+
+        data.lock();
+        try {
+            resource.lock();
+            resource.unlock();
+        } catch (OrderedLock.LockOrderException e) {
+            System.out.println(e.getMessage());
+        } finally {
+            data.unlock();
+        }
     }
     
     private void resource() throws InterruptedException {
@@ -0,0 +1,153 @@
+package com.kunbu.java.basic.base.thread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 进程内死锁检测，代替手工jps + jstack
+ *
+ * 定时调用ThreadMXBean.findDeadlockedThreads()（同时覆盖synchronized和j.u.c的Lock），
+ * 只有发现死锁时才去取ThreadInfo和堆栈
+ *
+ * 开销：findDeadlockedThreads()本身就是一次safepoint操作（VM_FindDeadlocks，停下所有Java线程再遍历锁的持有关系），
+ * 所以每次采样都有一次全局停顿，停顿长短和线程数相关；取ThreadInfo和堆栈是另一次safepoint，工作量更大，只在发现死锁时发生。
+ * 周期不宜太短（秒级足够），停顿时间可以用-Xlog:safepoint（JDK8：-XX:+PrintSafepointStatistics）确认
+ *
+ * 同一组死锁线程只报告一次；采样次数和累计耗时可以通过getSampleCount()/getAvgSampleNanos()查看，用来评估开销
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 18:20
+ **/
+public class DeadlockWatchdog {
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Consumer<String> reporter;
+    private final ScheduledExecutorService scheduler;
+
+    /** 上一次报告过的死锁线程，sample()加锁访问 */
+    private Set<Long> reported = new HashSet<>();
+    private volatile long sampleCount;
+    private volatile long sampleNanos;
+
+    public DeadlockWatchdog() {
+        this(System.err::println);
+    }
+
+    public DeadlockWatchdog(Consumer<String> reporter) {
+        this.reporter = reporter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("deadlock-watchdog-%d").setDaemon(true).build());
+    }
+
+    public DeadlockWatchdog start(long period, TimeUnit unit) {
+        // 任务抛异常会被scheduleWithFixedDelay静默取消，之后再也不采样，所以这里什么都不能抛出去
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                sample();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }, period, period, unit);
+        return this;
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 采样一次，有新的死锁则返回报告，否则返回null
+     */
+    public synchronized String sample() {
+        long start = System.nanoTime();
+        String report = null;
+        try {
+            long[] ids = threadMXBean.findDeadlockedThreads();
+            if (ids == null) {
+                reported = new HashSet<>();
+                return null;
+            }
+            Set<Long> current = new HashSet<>();
+            for (long id : ids) {
+                current.add(id);
+            }
+            if (!current.equals(reported)) {
+                reported = current;
+                report = describe(ids);
+                try {
+                    reporter.accept(report);
+                } catch (Throwable e) {
+                    // reporter出错不影响返回报告，也不影响下一次采样
+                    e.printStackTrace();
+                }
+            }
+            return report;
+        } finally {
+            sampleNanos += System.nanoTime() - start;
+            sampleCount++;
+        }
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getAvgSampleNanos() {
+        long count = sampleCount;
+        return count == 0 ? 0 : sampleNanos / count;
+    }
+
+    /**
+     * 锁等待关系 + 每个线程的堆栈，格式类似jstack的Found one Java-level deadlock
+     */
+    String describe(long[] ids) {
+        ThreadInfo[] infos = threadMXBean.getThreadInfo(ids, true, true);
+        StringBuilder sb = new StringBuilder("Found ").append(ids.length).append(" deadlocked threads:\n");
+        for (ThreadInfo info : infos) {
+            if (info == null) {
+                continue;
+            }
+            sb.append("  \"").append(info.getThreadName()).append("\"")
+                    .append(" waiting for ").append(info.getLockName())
+                    .append(" held by \"").append(info.getLockOwnerName()).append("\"\n");
+        }
+        for (ThreadInfo info : infos) {
+            if (info == null) {
+                continue;
+            }
+            sb.append("\n\"").append(info.getThreadName()).append("\" id=").append(info.getThreadId())
+                    .append(" ").append(info.getThreadState()).append("\n");
+            StackTraceElement[] stack = info.getStackTrace();
+            MonitorInfo[] monitors = info.getLockedMonitors();
+            for (int i = 0; i < stack.length; i++) {
+                sb.append("\tat ").append(stack[i]).append("\n");
+                if (i == 0 && info.getLockInfo() != null) {
+                    sb.append("\t-  waiting on ").append(info.getLockInfo()).append("\n");
+                }
+                for (MonitorInfo mi : monitors) {
+                    if (mi.getLockedStackDepth() == i) {
+                        sb.append("\t-  locked ").append(mi).append("\n");
+                    }
+                }
+            }
+            LockInfo[] synchronizers = info.getLockedSynchronizers();
+            if (synchronizers.length > 0) {
+                sb.append("\tLocked synchronizers: ").append(Arrays.toString(synchronizers)).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -140,9 +140,29 @@ public class FutureCallable {
     }
 
 
+    /**
+     * LightFuture：支持超时、取消、回调和异常传递
+     */
+    public static void testLightFuture() {
+        LightFuture<Double> future = new LightFuture<>(() -> {
+            Thread.sleep(500);
+            return 2.33;
+        });
+        future.whenComplete((v, e) -> System.out.println("回调：" + v + ", " + e));
+        pool.execute(future);
+        try {
+            System.out.println("结果：" + future.get(1, TimeUnit.SECONDS));
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
 //		testFuture();
 //		testFutureTask();
+//		testLightFuture();
         testMyCallable();
 
         //也可以直接用Thread执行，只是拿不到返回值
@@ -154,28 +174,24 @@ public class FutureCallable {
         )).start();
     }
 
+    /**
+     * 原来get()里for(;;)判断volatile标记，等待期间一直占着一个核，改为委托给LightFuture：先短暂自旋，拿不到结果再park
+     */
     static class ReturnRunnable<V> implements Runnable {
 
-        private V result;
-        private volatile boolean flag;
-        private ReturnCallable<V> rc;
+        private final LightFuture<V> future;
 
         public ReturnRunnable(ReturnCallable<V> task) {
-            rc = task;
+            future = new LightFuture<>(task::calling);
         }
 
         @Override
         public void run() {
-            result = rc.calling();
-            flag = true;
+            future.run();
         }
 
         public V get() {
-            for (; ; ) {
-                if (flag) {
-                    return result;
-                }
-            }
+            return future.join();
         }
 
     }
@@ -0,0 +1,398 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+
+/**
+ * 轻量的Future，用来替代FutureCallable.ReturnRunnable里for(;;)空转等待
+ *
+ * 和FutureTask的区别：
+ *      1.等待时先自旋一小段（结果往往很快就到，省掉park/unpark的系统调用），超过次数后才入栈park
+ *      2.自旋阶段拿到结果就不会创建WaitNode，一对一传递结果时基本只有Future本身这一次分配
+ *      3.支持回调whenComplete，以及不依赖Callable的complete/completeExceptionally（可以当成结果传递的通道）
+ *
+ * 状态流转（和FutureTask一致）：
+ *      NEW -> COMPLETING -> NORMAL
+ *      NEW -> COMPLETING -> EXCEPTIONAL
+ *      NEW -> CANCELLED
+ *      NEW -> INTERRUPTING -> INTERRUPTED
+ *
+ * cancel(true)先进入INTERRUPTING再中断runner，run()退出前等INTERRUPTING结束，
+ * 否则interrupt()可能在run()返回之后才到，打到线程池里同一个线程执行的下一个任务上
+ *
+ * 等待者和回调都用Treiber栈（CAS头插），完成时一次性把栈头换成DONE哨兵再逐个处理，之后再来的直接走完成分支
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 14:05
+ **/
+public class LightFuture<V> implements RunnableFuture<V> {
+
+    private static final int NEW = 0;
+    private static final int COMPLETING = 1;
+    private static final int NORMAL = 2;
+    private static final int EXCEPTIONAL = 3;
+    private static final int CANCELLED = 4;
+    private static final int INTERRUPTING = 5;
+    private static final int INTERRUPTED = 6;
+
+    /** 多核下自旋才有意义，单核自旋只会占着CPU不让生产者运行 */
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1 << 10 : 0;
+
+    private static final AtomicIntegerFieldUpdater<LightFuture> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(LightFuture.class, "state");
+    private static final AtomicReferenceFieldUpdater<LightFuture, Node> WAITERS =
+            AtomicReferenceFieldUpdater.newUpdater(LightFuture.class, Node.class, "waiters");
+    private static final AtomicReferenceFieldUpdater<LightFuture, Node> CALLBACKS =
+            AtomicReferenceFieldUpdater.newUpdater(LightFuture.class, Node.class, "callbacks");
+    private static final AtomicReferenceFieldUpdater<LightFuture, Thread> RUNNER =
+            AtomicReferenceFieldUpdater.newUpdater(LightFuture.class, Thread.class, "runner");
+
+    /** 栈被处理过的标记 */
+    private static final Node DONE = new Node(null, null);
+
+    private volatile int state;
+    /** 由state的volatile写读保证可见性 */
+    private Object outcome;
+    private Callable<V> callable;
+    private volatile Thread runner;
+    private volatile Node waiters;
+    private volatile Node callbacks;
+
+    /**
+     * 只作为结果通道使用，由complete/completeExceptionally设置结果
+     */
+    public LightFuture() {
+    }
+
+    public LightFuture(Callable<V> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        this.callable = callable;
+    }
+
+    @Override
+    public void run() {
+        Callable<V> c = callable;
+        if (state != NEW || c == null || !RUNNER.compareAndSet(this, null, Thread.currentThread())) {
+            return;
+        }
+        try {
+            V v;
+            try {
+                v = c.call();
+            } catch (Throwable e) {
+                completeExceptionally(e);
+                return;
+            }
+            complete(v);
+        } finally {
+            runner = null;
+            callable = null;
+            int s = state;
+            if (s >= INTERRUPTING) {
+                handlePossibleCancellationInterrupt(s);
+            }
+        }
+    }
+
+    /**
+     * 等cancel(true)的interrupt()完成，保证中断落在本任务内；中断标记留给线程池处理（和FutureTask一样不清除）
+     */
+    private void handlePossibleCancellationInterrupt(int s) {
+        if (s == INTERRUPTING) {
+            while (state == INTERRUPTING) {
+                Thread.yield();
+            }
+        }
+    }
+
+    public boolean complete(V value) {
+        return finish(value, NORMAL);
+    }
+
+    public boolean completeExceptionally(Throwable e) {
+        if (e == null) {
+            throw new NullPointerException();
+        }
+        return finish(e, EXCEPTIONAL);
+    }
+
+    /**
+     * 未完成时才能取消，mayInterruptIfRunning=true会尝试中断正在执行的线程（和FutureTask一样，是否响应看任务自己）
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!STATE.compareAndSet(this, NEW, mayInterruptIfRunning ? INTERRUPTING : CANCELLED)) {
+            return false;
+        }
+        if (mayInterruptIfRunning) {
+            try {
+                Thread t = runner;
+                if (t != null) {
+                    t.interrupt();
+                }
+            } finally {
+                STATE.lazySet(this, INTERRUPTED);
+            }
+        }
+        finishCompletion();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state >= CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state > COMPLETING;
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        int s = state;
+        if (s <= COMPLETING) {
+            s = awaitDone(true, false, 0L);
+        }
+        return report(s);
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        int s = state;
+        if (s <= COMPLETING && (s = awaitDone(true, true, unit.toNanos(timeout))) <= COMPLETING) {
+            throw new TimeoutException();
+        }
+        return report(s);
+    }
+
+    /**
+     * 不响应中断的等待，异常包装成CompletionException（同CompletableFuture.join）
+     */
+    public V join() {
+        int s = state;
+        if (s <= COMPLETING) {
+            try {
+                s = awaitDone(false, false, 0L);
+            } catch (InterruptedException e) {
+                // interruptible=false时不会走到这里
+                throw new IllegalStateException(e);
+            }
+        }
+        if (s == NORMAL) {
+            return value();
+        }
+        if (s >= CANCELLED) {
+            throw new CancellationException();
+        }
+        throw new CompletionException((Throwable) outcome);
+    }
+
+    /**
+     * 完成后回调，已完成则在当前线程立即执行，否则在完成结果的线程中执行
+     * 正常结束时throwable为null，取消时为CancellationException
+     */
+    public LightFuture<V> whenComplete(BiConsumer<? super V, ? super Throwable> action) {
+        Node node = null;
+        for (; ; ) {
+            Node h = callbacks;
+            if (h == DONE) {
+                fire(action);
+                return this;
+            }
+            if (node == null) {
+                node = new Node(action, null);
+            }
+            node.next = h;
+            if (CALLBACKS.compareAndSet(this, h, node)) {
+                return this;
+            }
+        }
+    }
+
+    private boolean finish(Object value, int finalState) {
+        if (!STATE.compareAndSet(this, NEW, COMPLETING)) {
+            return false;
+        }
+        outcome = value;
+        // 有序写即可，读者看到NORMAL/EXCEPTIONAL时outcome一定已可见
+        STATE.lazySet(this, finalState);
+        finishCompletion();
+        return true;
+    }
+
+    private void finishCompletion() {
+        for (Node n = WAITERS.getAndSet(this, DONE); n != null && n != DONE; n = n.next) {
+            Thread t = (Thread) n.item;
+            if (t != null) {
+                n.item = null;
+                LockSupport.unpark(t);
+            }
+        }
+        Node cbs = CALLBACKS.getAndSet(this, DONE);
+        // 头插导致顺序是反的，翻转一下，按注册顺序执行
+        Node reversed = null;
+        for (Node n = cbs; n != null && n != DONE; ) {
+            Node next = n.next;
+            n.next = reversed;
+            reversed = n;
+            n = next;
+        }
+        for (Node n = reversed; n != null; n = n.next) {
+            @SuppressWarnings("unchecked")
+            BiConsumer<? super V, ? super Throwable> action = (BiConsumer<? super V, ? super Throwable>) n.item;
+            fire(action);
+        }
+    }
+
+    private void fire(BiConsumer<? super V, ? super Throwable> action) {
+        try {
+            int s = state;
+            if (s == NORMAL) {
+                action.accept(value(), null);
+            } else {
+                action.accept(null, s >= CANCELLED ? new CancellationException() : (Throwable) outcome);
+            }
+        } catch (Throwable e) {
+            // 回调异常不影响结果，也不影响其他回调
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 先自旋，再入栈park
+     *
+     * @return 返回时的状态，超时返回时可能仍 <= COMPLETING
+     */
+    private int awaitDone(boolean interruptible, boolean timed, long nanos) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        int s;
+        for (int i = 0; i < SPINS; i++) {
+            if ((s = state) > COMPLETING) {
+                return s;
+            }
+            if (s == COMPLETING) {
+                // 结果马上就写好了
+                Thread.yield();
+            }
+        }
+        Node node = null;
+        boolean queued = false;
+        boolean interrupted = false;
+        for (; ; ) {
+            s = state;
+            if (s > COMPLETING) {
+                if (node != null) {
+                    node.item = null;
+                }
+                break;
+            }
+            if (s == COMPLETING) {
+                Thread.yield();
+                continue;
+            }
+            if (Thread.interrupted()) {
+                if (interruptible) {
+                    removeWaiter(node);
+                    throw new InterruptedException();
+                }
+                interrupted = true;
+            }
+            if (node == null) {
+                node = new Node(Thread.currentThread(), null);
+            } else if (!queued) {
+                Node h = waiters;
+                if (h == DONE) {
+                    // 已经在完成过程中，下一轮就能看到最终状态
+                    Thread.yield();
+                    continue;
+                }
+                node.next = h;
+                queued = WAITERS.compareAndSet(this, h, node);
+            } else if (timed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    // 必须摘除，否则对长时间运行的任务反复get(timeout)会让栈无限增长
+                    removeWaiter(node);
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return state;
+    }
+
+    /**
+     * 清掉线程引用，再把所有已清空的节点从栈中摘除（同FutureTask.removeWaiter）
+     * 和其他摘除/入栈并发时CAS栈头失败、或者前驱自己也被清空了，都从头重来
+     */
+    private void removeWaiter(Node node) {
+        if (node == null) {
+            return;
+        }
+        node.item = null;
+        retry:
+        for (; ; ) {
+            for (Node pred = null, q = waiters, next; q != null && q != DONE; q = next) {
+                next = q.next;
+                if (q.item != null) {
+                    pred = q;
+                } else if (pred != null) {
+                    pred.next = next;
+                    if (pred.item == null) {
+                        continue retry;
+                    }
+                } else if (!WAITERS.compareAndSet(this, q, next)) {
+                    continue retry;
+                }
+            }
+            break;
+        }
+    }
+
+    private V report(int s) throws ExecutionException {
+        if (s == NORMAL) {
+            return value();
+        }
+        if (s >= CANCELLED) {
+            throw new CancellationException();
+        }
+        throw new ExecutionException((Throwable) outcome);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value() {
+        return (V) outcome;
+    }
+
+    /**
+     * 等待线程和回调共用的栈节点
+     */
+    static final class Node {
+
+        volatile Object item;
+        Node next;
+
+        Node(Object item, Node next) {
+            this.item = item;
+            this.next = next;
+        }
+    }
+}
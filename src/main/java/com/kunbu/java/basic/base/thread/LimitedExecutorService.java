@@ -0,0 +1,143 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用信号量限制同时执行的任务数
+ *
+ * 虚拟线程不需要池化，也就没有"队列多长、线程多少"的调参问题，真正要限制的是对下游（DB连接、外部接口）的并发数。
+ * 许可用完时execute()阻塞提交线程（天然的背压），等待超过acquireTimeout则抛RejectedExecutionException
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 11:00
+ **/
+public class LimitedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+
+    /**
+     * 许可用完时一直阻塞等待
+     */
+    public LimitedExecutorService(ExecutorService delegate, int maxConcurrency) {
+        this(delegate, maxConcurrency, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    public LimitedExecutorService(ExecutorService delegate, int maxConcurrency, long acquireTimeout, TimeUnit unit) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency=" + maxConcurrency);
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.acquireTimeoutNanos = unit.toNanos(acquireTimeout);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (delegate.isShutdown()) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("No permit within timeout, maxConcurrency=" + maxConcurrency);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for permit", e);
+        }
+        try {
+            delegate.execute(new PermitTask(command));
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getRunningCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * 等待许可的提交线程数（估计值）
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    /**
+     * 队列中没执行的任务已经占了许可，这里归还，并返回原始任务而不是PermitTask包装，便于调用方重新提交
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = delegate.shutdownNow();
+        for (int i = 0; i < tasks.size(); i++) {
+            Runnable r = tasks.get(i);
+            if (r instanceof PermitTask) {
+                permits.release();
+                tasks.set(i, ((PermitTask) r).task);
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 执行完归还许可的任务包装
+     */
+    final class PermitTask implements Runnable {
+
+        final Runnable task;
+
+        PermitTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return task.toString();
+        }
+    }
+}
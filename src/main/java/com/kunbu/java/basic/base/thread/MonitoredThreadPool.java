@@ -0,0 +1,245 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带统计的线程池
+ *
+ * 每个任务在execute时被包装成TimedTask，记录提交时间，在beforeExecute/afterExecute中得到：
+ *      1.排队耗时：开始执行时间 - 提交时间
+ *      2.运行耗时：执行结束时间 - 开始执行时间
+ *      3.拒绝次数：包装RejectedExecutionHandler，先计数再交给原策略处理
+ *
+ * 所有计数都用LongAdder（分段累加，不加锁），避免原来beforeExecute里println在高并发下争用System.out的锁
+ *
+ * PS：core/max可以在运行期通过setCorePoolSize/setMaximumPoolSize修改，@see PoolTuner
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 10:12
+ **/
+public class MonitoredThreadPool extends ThreadPoolExecutor {
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Long::max, 0L);
+    private final LongAccumulator maxRunNanos = new LongAccumulator(Long::max, 0L);
+
+    public MonitoredThreadPool(int corePoolSize,
+                               int maximumPoolSize,
+                               long keepAliveTime,
+                               TimeUnit unit,
+                               BlockingQueue<Runnable> workQueue,
+                               ThreadFactory threadFactory,
+                               RejectedExecutionHandler handler) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, handler);
+        // 父类构造器里不能引用this，这里再把拒绝策略包一层
+        setRejectedExecutionHandler(new CountingRejectedHandler(handler, rejected));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        submitted.increment();
+        super.execute(new TimedTask(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof TimedTask) {
+            TimedTask task = (TimedTask) r;
+            task.startNanos = System.nanoTime();
+            long wait = task.startNanos - task.submitNanos;
+            started.increment();
+            queueWaitNanos.add(wait);
+            maxQueueWaitNanos.accumulate(wait);
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        if (r instanceof TimedTask) {
+            long run = System.nanoTime() - ((TimedTask) r).startNanos;
+            runNanos.add(run);
+            maxRunNanos.accumulate(run);
+        }
+        // submit()提交的任务异常被FutureTask吞掉，这里只能统计execute()直接抛出的
+        if (t == null) {
+            completed.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * 返回原始任务而不是TimedTask包装，便于调用方重新提交
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = super.shutdownNow();
+        for (int i = 0; i < tasks.size(); i++) {
+            Runnable r = tasks.get(i);
+            if (r instanceof TimedTask) {
+                tasks.set(i, ((TimedTask) r).delegate);
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 当前统计快照，各项之间不保证严格一致（LongAdder.sum()本身就不是原子快照）
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(
+                submitted.sum(),
+                started.sum(),
+                completed.sum(),
+                failed.sum(),
+                rejected.sum(),
+                queueWaitNanos.sum(),
+                runNanos.sum(),
+                maxQueueWaitNanos.get(),
+                maxRunNanos.get(),
+                getQueue().size(),
+                getActiveCount(),
+                getPoolSize(),
+                getCorePoolSize(),
+                getMaximumPoolSize());
+    }
+
+    /**
+     * 运行期调整线程数，JDK9之后core > max会抛IllegalArgumentException，所以要按方向决定先改哪个
+     */
+    public void resize(int core, int max) {
+        if (core < 1 || max < core) {
+            throw new IllegalArgumentException("core=" + core + ", max=" + max);
+        }
+        if (core > getMaximumPoolSize()) {
+            setMaximumPoolSize(max);
+            setCorePoolSize(core);
+        } else {
+            setCorePoolSize(core);
+            setMaximumPoolSize(max);
+        }
+    }
+
+    /**
+     * 记录提交时间的任务包装
+     */
+    static final class TimedTask implements Runnable {
+
+        final Runnable delegate;
+        final long submitNanos;
+        /** 只在工作线程内读写 */
+        long startNanos;
+
+        TimedTask(Runnable delegate) {
+            this.delegate = delegate;
+            this.submitNanos = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    /**
+     * 计数后交给原拒绝策略
+     */
+    static final class CountingRejectedHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+        private final LongAdder rejected;
+
+        CountingRejectedHandler(RejectedExecutionHandler delegate, LongAdder rejected) {
+            this.delegate = delegate;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(r instanceof TimedTask ? ((TimedTask) r).delegate : r, executor);
+        }
+    }
+
+    public static final class Snapshot {
+
+        public final long submitted;
+        public final long started;
+        public final long completed;
+        public final long failed;
+        public final long rejected;
+        public final long queueWaitNanos;
+        public final long runNanos;
+        public final long maxQueueWaitNanos;
+        public final long maxRunNanos;
+        public final int queueSize;
+        public final int activeCount;
+        public final int poolSize;
+        public final int corePoolSize;
+        public final int maximumPoolSize;
+
+        Snapshot(long submitted, long started, long completed, long failed, long rejected,
+                 long queueWaitNanos, long runNanos, long maxQueueWaitNanos, long maxRunNanos,
+                 int queueSize, int activeCount, int poolSize, int corePoolSize, int maximumPoolSize) {
+            this.submitted = submitted;
+            this.started = started;
+            this.completed = completed;
+            this.failed = failed;
+            this.rejected = rejected;
+            this.queueWaitNanos = queueWaitNanos;
+            this.runNanos = runNanos;
+            this.maxQueueWaitNanos = maxQueueWaitNanos;
+            this.maxRunNanos = maxRunNanos;
+            this.queueSize = queueSize;
+            this.activeCount = activeCount;
+            this.poolSize = poolSize;
+            this.corePoolSize = corePoolSize;
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public long finished() {
+            return completed + failed;
+        }
+
+        @Override
+        public String toString() {
+            long done = Math.max(finished(), 1);
+            return "submitted=" + submitted
+                    + ", started=" + started
+                    + ", completed=" + completed
+                    + ", failed=" + failed
+                    + ", rejected=" + rejected
+                    + ", avgQueueWait=" + TimeUnit.NANOSECONDS.toMicros(queueWaitNanos / Math.max(started, 1)) + "us"
+                    + ", maxQueueWait=" + TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos) + "us"
+                    + ", avgRun=" + TimeUnit.NANOSECONDS.toMicros(runNanos / done) + "us"
+                    + ", maxRun=" + TimeUnit.NANOSECONDS.toMicros(maxRunNanos) + "us"
+                    + ", queue=" + queueSize
+                    + ", active=" + activeCount
+                    + ", pool=" + poolSize
+                    + ", core=" + corePoolSize
+                    + ", max=" + maximumPoolSize;
+        }
+    }
+}
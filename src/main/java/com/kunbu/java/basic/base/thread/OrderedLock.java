@@ -0,0 +1,290 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 带加锁顺序检查的ReentrantLock，用于在测试阶段发现DeadLock那种顺序反转
+ *
+ * 原理：线程持有A再去拿B时，记录一条A -> B的边；如果图中已经存在B -> ... -> A的路径，
+ * 说明别的线程曾经按相反顺序加锁，两者同时发生就会死锁。此时在真正阻塞之前抛出LockOrderException
+ *
+ *      1.查找路径和加边在同一把全局锁（GRAPH）下完成，两个线程同时反序加锁时，后加边的一方一定能看到先加的边
+ *      2.阻塞前先加一条待定的边，获取成功才确认；被中断时撤销，失败的加锁不会在图里留下永久的边
+ *      3.边保存在先获取的锁对象上，不经过静态集合，锁对象不再被引用时连同它的边一起被回收；reset()通过版本号清空
+ *
+ * 检查默认关闭（-Dlock.order.check=true 或 setChecking(true) 打开），关闭时只是一个普通的ReentrantLock
+ * PS：只检查通过OrderedLock获取的锁，synchronized不在此列
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 18:50
+ **/
+public class OrderedLock implements Lock {
+
+    private static volatile boolean checking = Boolean.getBoolean("lock.order.check");
+
+    /** 加锁顺序图的全局锁，所有锁的successors和epoch都由它保护 */
+    private static final Object GRAPH = new Object();
+
+    /** reset()时加一，successors版本落后的锁在下次访问时清空 */
+    private static int epoch;
+
+    private static final ThreadLocal<Deque<OrderedLock>> HELD = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final String name;
+    private final ReentrantLock lock;
+
+    /** 在这把锁之后获取过的锁 */
+    private final Map<OrderedLock, Edge> successors = new HashMap<>();
+    private int successorsEpoch;
+
+    public OrderedLock(String name) {
+        this(name, false);
+    }
+
+    public OrderedLock(String name, boolean fair) {
+        this.name = name;
+        this.lock = new ReentrantLock(fair);
+    }
+
+    public static void setChecking(boolean enabled) {
+        checking = enabled;
+    }
+
+    /**
+     * 清空已记录的加锁顺序，测试用例之间调用
+     */
+    public static void reset() {
+        synchronized (GRAPH) {
+            epoch++;
+        }
+    }
+
+    @Override
+    public void lock() {
+        Pending pending = beforeAcquire();
+        boolean acquired = false;
+        try {
+            lock.lock();
+            acquired = true;
+        } finally {
+            complete(pending, acquired);
+        }
+        afterAcquire();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        Pending pending = beforeAcquire();
+        boolean acquired = false;
+        try {
+            lock.lockInterruptibly();
+            acquired = true;
+        } finally {
+            complete(pending, acquired);
+        }
+        afterAcquire();
+    }
+
+    @Override
+    public boolean tryLock() {
+        // tryLock不会阻塞，不构成死锁，不做检查，但拿到后仍计入持有栈
+        if (lock.tryLock()) {
+            afterAcquire();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (lock.tryLock(time, unit)) {
+            afterAcquire();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        lock.unlock();
+        if (checking) {
+            HELD.get().removeFirstOccurrence(this);
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 检查顺序反转，通过后从当前持有的每把锁加一条待定的边，返回需要确认或撤销的边，不检查时返回null
+     */
+    private Pending beforeAcquire() {
+        if (!checking || lock.isHeldByCurrentThread()) {
+            return null;
+        }
+        Deque<OrderedLock> heldLocks = HELD.get();
+        if (heldLocks.isEmpty()) {
+            return null;
+        }
+        synchronized (GRAPH) {
+            for (OrderedLock held : heldLocks) {
+                if (held == this) {
+                    continue;
+                }
+                List<OrderedLock> path = findPath(this, held);
+                if (path != null) {
+                    throw new LockOrderException(held, this, path);
+                }
+            }
+            Pending pending = new Pending(epoch);
+            for (OrderedLock held : heldLocks) {
+                if (held != this && !pending.from.contains(held)) {
+                    held.successors().computeIfAbsent(this, k -> new Edge()).pending++;
+                    pending.from.add(held);
+                }
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * 获取成功则确认待定的边，失败则撤销（其他线程已确认的同一条边保留）
+     */
+    private void complete(Pending pending, boolean acquired) {
+        if (pending == null) {
+            return;
+        }
+        synchronized (GRAPH) {
+            if (pending.epoch != epoch) {
+                // 期间reset过，待定的边已随旧版本清空
+                return;
+            }
+            for (OrderedLock held : pending.from) {
+                Map<OrderedLock, Edge> edges = held.successors();
+                Edge edge = edges.get(this);
+                if (edge == null) {
+                    continue;
+                }
+                edge.pending--;
+                if (acquired) {
+                    edge.confirmed = true;
+                } else if (edge.pending == 0 && !edge.confirmed) {
+                    edges.remove(this);
+                }
+            }
+        }
+    }
+
+    /**
+     * 调用方必须持有GRAPH
+     */
+    private Map<OrderedLock, Edge> successors() {
+        if (successorsEpoch != epoch) {
+            successors.clear();
+            successorsEpoch = epoch;
+        }
+        return successors;
+    }
+
+    private void afterAcquire() {
+        if (checking) {
+            HELD.get().push(this);
+        }
+    }
+
+    /**
+     * 深度优先查找from到to的加锁顺序路径，找不到返回null，调用方必须持有GRAPH
+     */
+    private static List<OrderedLock> findPath(OrderedLock from, OrderedLock to) {
+        Deque<List<OrderedLock>> stack = new ArrayDeque<>();
+        Set<OrderedLock> visited = new HashSet<>();
+        List<OrderedLock> start = new ArrayList<>();
+        start.add(from);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            List<OrderedLock> path = stack.pop();
+            OrderedLock last = path.get(path.size() - 1);
+            if (last == to) {
+                return path;
+            }
+            if (!visited.add(last)) {
+                continue;
+            }
+            for (OrderedLock next : last.successors().keySet()) {
+                List<OrderedLock> nextPath = new ArrayList<>(path);
+                nextPath.add(next);
+                stack.push(nextPath);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderedLock[" + name + "]";
+    }
+
+    /**
+     * 一条加锁顺序边：pending是还在等待获取的线程数，confirmed表示有线程按这个顺序成功获取过
+     */
+    private static final class Edge {
+
+        int pending;
+        boolean confirmed;
+    }
+
+    /**
+     * 一次加锁在哪些锁上加了待定的边
+     */
+    private static final class Pending {
+
+        final int epoch;
+        final List<OrderedLock> from = new ArrayList<>();
+
+        Pending(int epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    /**
+     * 加锁顺序反转
+     */
+    public static class LockOrderException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        public LockOrderException(OrderedLock held, OrderedLock acquiring, List<OrderedLock> existing) {
+            super(Thread.currentThread().getName() + " holds " + held.name + " and is acquiring " + acquiring.name
+                    + ", but the opposite order was seen before: " + names(existing));
+        }
+
+        private static String names(List<OrderedLock> path) {
+            StringBuilder sb = new StringBuilder();
+            for (OrderedLock lock : path) {
+                if (sb.length() > 0) {
+                    sb.append(" -> ");
+                }
+                sb.append(lock.name);
+            }
+            return sb.toString();
+        }
+    }
+}
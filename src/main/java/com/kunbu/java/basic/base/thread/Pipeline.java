@@ -0,0 +1,545 @@
+package com.kunbu.java.basic.base.thread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 分阶段的批处理流水线：source -> map -> ... -> sink，每个阶段有自己的工作线程数和有界队列
+ *
+ * ThreadPool.main一直提交直到AbortPolicy抛RejectedExecutionException，myThreadPool满了用CallerRunsPolicy让提交线程自己执行，
+ * 两种都不是平滑的限流：前者直接失败，后者让生产者突然去干消费者的活，期间完全停止生产
+ *
+ * 这里每个阶段一个ArrayBlockingQueue，队列满时按阶段的策略处理：
+ *      BLOCK  阻塞上游（生产者或上一阶段的工作线程），压力逐级往回传，最终让submit()慢下来
+ *      SHED   丢弃当前元素并计数，适合可以容忍丢失的采样、监控类数据
+ *
+ *      Pipeline<String> pipeline = Pipeline.<String>builder("order")
+ *              .stage("parse", 2, 1024, Backpressure.BLOCK, Order::parse)
+ *              .stage("enrich", 8, 256, Backpressure.BLOCK, service::enrich)
+ *              .sink("save", 2, 256, Backpressure.BLOCK, dao::save)
+ *              .start();
+ *      pipeline.submit(line);
+ *      pipeline.close();
+ *
+ * map函数返回null表示过滤掉，不再往下传；抛出的异常计入failed，交给errorHandler，不影响后续元素
+ *
+ * 关闭：close()后不再接受提交，等正在进行的submit()返回后，往第一阶段放入和工作线程数相同的结束标记，标记排在已有元素之后；
+ * 某阶段最后一个线程退出时再给下一阶段放标记，所以已提交的元素都会处理完。
+ * shutdownNow()清空队列并中断所有线程，等正在进行的submit()返回（期间反复清空队列，阻塞在put()的提交者才能返回），
+ * 之后再清空一次并放入结束标记，吞掉中断的工作线程也能退出；shutdownNow()开始后入队的元素submit()返回false
+ *
+ * 统计：stats()返回每个阶段的快照（队列深度、处理数、丢弃数、处理耗时），两次快照相减得到吞吐
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-23 14:00
+ **/
+public class Pipeline<I> implements AutoCloseable {
+
+    public enum Backpressure {
+        BLOCK, SHED
+    }
+
+    /** 结束标记 */
+    private static final Object POISON = new Object();
+
+    private final String name;
+    private final List<Stage> stages;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final AtomicBoolean closed = new AtomicBoolean();
+    /** shutdownNow()已调用，队列中的元素都会被丢弃 */
+    private volatile boolean stopped;
+    /**
+     * submit()持有读锁，close()持有写锁放结束标记：检查closed和入队之间不能插进close()，否则元素排在结束标记后面，
+     * 计入accepted却永远不会被处理。阻塞在put()的提交者持有读锁，close()会等到它入队成功（工作线程一直在消费）
+     */
+    private final ReentrantReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    private Pipeline(String name, List<Stage> stages) {
+        this.name = name;
+        this.stages = stages;
+    }
+
+    public static <I> Builder<I, I> builder(String name) {
+        return new Builder<>(name, new ArrayList<>());
+    }
+
+    /**
+     * 按第一阶段的策略提交：BLOCK时队列满则等待，SHED时直接丢弃
+     *
+     * @return 是否被接受
+     */
+    public boolean submit(I item) throws InterruptedException {
+        submitLock.readLock().lockInterruptibly();
+        try {
+            checkOpen();
+            // shutdownNow()之后才入队的元素会被清空，不能算接受
+            return stages.get(0).enqueue(item) && !stopped;
+        } finally {
+            submitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 限时提交，不管第一阶段是什么策略，超时都算丢弃
+     */
+    public boolean submit(I item, long timeout, TimeUnit unit) throws InterruptedException {
+        submitLock.readLock().lockInterruptibly();
+        try {
+            checkOpen();
+            return stages.get(0).enqueue(item, timeout, unit) && !stopped;
+        } finally {
+            submitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 停止接受新元素，已提交的处理完后线程退出；只等正在进行的submit()，不等处理完成
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        submitLock.writeLock().lock();
+        try {
+            stages.get(0).poison();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdownNow();
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * 中断所有工作线程，队列中剩余的元素丢弃
+     */
+    public void shutdownNow() {
+        stopped = true;
+        closed.set(true);
+        for (Stage stage : stages) {
+            stage.queue.clear();
+            for (Thread t : stage.workers) {
+                t.interrupt();
+            }
+        }
+        // 阻塞在put()的提交者持有读锁，工作线程已被中断不再消费，只能靠反复清空队列让它们返回
+        while (!submitLock.writeLock().tryLock()) {
+            for (Stage stage : stages) {
+                stage.queue.clear();
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        try {
+            for (Stage stage : stages) {
+                stage.poisonNow();
+            }
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    public List<StageStats> stats() {
+        List<StageStats> result = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            result.add(stage.snapshot());
+        }
+        return result;
+    }
+
+    private void checkOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("Pipeline " + name + " is closed");
+        }
+    }
+
+    private Pipeline<I> start() {
+        for (Stage stage : stages) {
+            for (Thread t : stage.workers) {
+                t.start();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 类型安全的构建：I为提交的元素类型，T为当前最后一个阶段的输出类型
+     */
+    public static final class Builder<I, T> {
+
+        private final String name;
+        private final List<StageSpec> specs;
+
+        private Builder(String name, List<StageSpec> specs) {
+            this.name = name;
+            this.specs = specs;
+        }
+
+        public <R> Builder<I, R> stage(String stageName, int workers, int capacity,
+                                       Backpressure backpressure, Function<? super T, ? extends R> fn) {
+            specs.add(new StageSpec(stageName, workers, capacity, backpressure, fn));
+            return new Builder<>(name, specs);
+        }
+
+        public PipelineDefinition<I> sink(String stageName, int workers, int capacity,
+                                          Backpressure backpressure, Consumer<? super T> sink) {
+            Function<T, Object> fn = t -> {
+                sink.accept(t);
+                return null;
+            };
+            specs.add(new StageSpec(stageName, workers, capacity, backpressure, fn));
+            return new PipelineDefinition<>(name, specs);
+        }
+    }
+
+    /**
+     * 定义完成，可以设置错误处理后start()
+     */
+    public static final class PipelineDefinition<I> {
+
+        private final String name;
+        private final List<StageSpec> specs;
+        private ErrorHandler errorHandler = (stage, item, e) -> e.printStackTrace();
+
+        private PipelineDefinition(String name, List<StageSpec> specs) {
+            this.name = name;
+            this.specs = specs;
+        }
+
+        public PipelineDefinition<I> onError(ErrorHandler errorHandler) {
+            this.errorHandler = errorHandler;
+            return this;
+        }
+
+        public Pipeline<I> start() {
+            List<Stage> stages = new ArrayList<>(specs.size());
+            Pipeline<I> pipeline = new Pipeline<>(name, Collections.unmodifiableList(stages));
+            Stage next = null;
+            // 从后往前建，每个阶段需要引用下一阶段
+            for (int i = specs.size() - 1; i >= 0; i--) {
+                Stage stage = new Stage(pipeline, specs.get(i), next, errorHandler);
+                stages.add(0, stage);
+                next = stage;
+            }
+            return pipeline.start();
+        }
+    }
+
+    public interface ErrorHandler {
+
+        void onError(String stage, Object item, Throwable e);
+    }
+
+    private static final class StageSpec {
+
+        final String name;
+        final int workers;
+        final int capacity;
+        final Backpressure backpressure;
+        final Function<Object, Object> fn;
+
+        @SuppressWarnings("unchecked")
+        StageSpec(String name, int workers, int capacity, Backpressure backpressure, Function<?, ?> fn) {
+            if (workers < 1 || capacity < 1) {
+                throw new IllegalArgumentException(name + ": workers=" + workers + ", capacity=" + capacity);
+            }
+            this.name = name;
+            this.workers = workers;
+            this.capacity = capacity;
+            this.backpressure = backpressure;
+            this.fn = (Function<Object, Object>) fn;
+        }
+    }
+
+    private static final class Stage {
+
+        final Pipeline<?> pipeline;
+        final StageSpec spec;
+        final Stage next;
+        final ErrorHandler errorHandler;
+        final BlockingQueue<Object> queue;
+        final List<Thread> workers;
+        final AtomicInteger alive;
+
+        final LongAdder accepted = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder processed = new LongAdder();
+        final LongAdder filtered = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder busyNanos = new LongAdder();
+
+        Stage(Pipeline<?> pipeline, StageSpec spec, Stage next, ErrorHandler errorHandler) {
+            this.pipeline = pipeline;
+            this.spec = spec;
+            this.next = next;
+            this.errorHandler = errorHandler;
+            this.queue = new ArrayBlockingQueue<>(spec.capacity);
+            this.alive = new AtomicInteger(spec.workers);
+            ThreadFactory factory = new ThreadFactoryBuilder()
+                    .setNameFormat("pipeline-" + pipeline.name + "-" + spec.name + "-%d").build();
+            List<Thread> threads = new ArrayList<>(spec.workers);
+            for (int i = 0; i < spec.workers; i++) {
+                threads.add(factory.newThread(this::work));
+            }
+            this.workers = Collections.unmodifiableList(threads);
+        }
+
+        boolean enqueue(Object item) throws InterruptedException {
+            if (spec.backpressure == Backpressure.BLOCK) {
+                queue.put(item);
+            } else if (!queue.offer(item)) {
+                shed.increment();
+                return false;
+            }
+            accepted.increment();
+            return true;
+        }
+
+        boolean enqueue(Object item, long timeout, TimeUnit unit) throws InterruptedException {
+            if (!queue.offer(item, timeout, unit)) {
+                shed.increment();
+                return false;
+            }
+            accepted.increment();
+            return true;
+        }
+
+        /**
+         * 结束标记总是阻塞放入，不受SHED影响
+         */
+        void poison() throws InterruptedException {
+            for (int i = 0; i < spec.workers; i++) {
+                queue.put(POISON);
+            }
+        }
+
+        /**
+         * shutdownNow()用：清空队列后不阻塞地放结束标记，容量不够时取到标记的线程退出前会再放回一个
+         */
+        void poisonNow() {
+            queue.clear();
+            for (int i = 0; i < spec.workers; i++) {
+                if (!queue.offer(POISON)) {
+                    break;
+                }
+            }
+        }
+
+        void work() {
+            try {
+                for (; ; ) {
+                    Object item = queue.take();
+                    if (item == POISON) {
+                        if (pipeline.stopped) {
+                            queue.offer(POISON);
+                        }
+                        break;
+                    }
+                    if (pipeline.stopped) {
+                        // 中断被fn吞掉时，剩余元素直接丢弃
+                        continue;
+                    }
+                    long start = System.nanoTime();
+                    Object result;
+                    try {
+                        result = spec.fn.apply(item);
+                    } catch (Throwable e) {
+                        failed.increment();
+                        onError(item, e);
+                        continue;
+                    } finally {
+                        busyNanos.add(System.nanoTime() - start);
+                    }
+                    processed.increment();
+                    if (next == null) {
+                        continue;
+                    }
+                    if (result == null) {
+                        filtered.increment();
+                    } else {
+                        // 下一阶段BLOCK时在这里阻塞，把压力传回本阶段的队列
+                        next.enqueue(result);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // shutdownNow
+                Thread.currentThread().interrupt();
+            } finally {
+                if (alive.decrementAndGet() == 0) {
+                    finish();
+                }
+            }
+        }
+
+        /**
+         * errorHandler本身抛异常也不能让工作线程退出：一个阶段的线程全部退出后下游提前收到结束标记，
+         * 上游还在往本阶段的队列里放，BLOCK的生产者和close()都会永远阻塞在put()上
+         */
+        private void onError(Object item, Throwable e) {
+            try {
+                errorHandler.onError(spec.name, item, e);
+            } catch (Throwable handlerError) {
+                handlerError.addSuppressed(e);
+                handlerError.printStackTrace();
+            }
+        }
+
+        /**
+         * 本阶段最后一个线程退出：通知下一阶段结束，或者整个流水线结束
+         */
+        private void finish() {
+            if (next == null) {
+                pipeline.terminated.countDown();
+                return;
+            }
+            if (pipeline.stopped) {
+                // 下游可能已经没有线程在消费，不能阻塞
+                next.poisonNow();
+                return;
+            }
+            try {
+                next.poison();
+            } catch (InterruptedException e) {
+                // 被shutdownNow中断，下游线程也会被中断
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        StageStats snapshot() {
+            return new StageStats(spec.name, spec.workers, alive.get(), queue.size(), spec.capacity,
+                    accepted.sum(), shed.sum(), processed.sum(), filtered.sum(), failed.sum(), busyNanos.sum(),
+                    System.nanoTime());
+        }
+    }
+
+    /**
+     * 阶段统计快照
+     */
+    public static final class StageStats {
+
+        public final String name;
+        public final int workers;
+        public final int aliveWorkers;
+        public final int queueSize;
+        public final int queueCapacity;
+        /** 进入本阶段队列的元素数 */
+        public final long accepted;
+        /** 队列满被丢弃的元素数 */
+        public final long shed;
+        public final long processed;
+        /** 返回null被过滤的元素数 */
+        public final long filtered;
+        public final long failed;
+        public final long busyNanos;
+        public final long timestampNanos;
+
+        StageStats(String name, int workers, int aliveWorkers, int queueSize, int queueCapacity,
+                   long accepted, long shed, long processed, long filtered, long failed, long busyNanos,
+                   long timestampNanos) {
+            this.name = name;
+            this.workers = workers;
+            this.aliveWorkers = aliveWorkers;
+            this.queueSize = queueSize;
+            this.queueCapacity = queueCapacity;
+            this.accepted = accepted;
+            this.shed = shed;
+            this.processed = processed;
+            this.filtered = filtered;
+            this.failed = failed;
+            this.busyNanos = busyNanos;
+            this.timestampNanos = timestampNanos;
+        }
+
+        /**
+         * 从earlier到本次快照之间每秒处理的元素数
+         */
+        public double throughputSince(StageStats earlier) {
+            long elapsed = timestampNanos - earlier.timestampNanos;
+            return elapsed <= 0 ? 0 : (processed + failed - earlier.processed - earlier.failed) * 1e9 / elapsed;
+        }
+
+        /**
+         * 工作线程忙碌的比例，接近1说明本阶段是瓶颈，应该加线程
+         */
+        public double utilizationSince(StageStats earlier) {
+            long elapsed = timestampNanos - earlier.timestampNanos;
+            return elapsed <= 0 ? 0 : (double) (busyNanos - earlier.busyNanos) / elapsed / workers;
+        }
+
+        @Override
+        public String toString() {
+            long done = Math.max(processed + failed, 1);
+            return name
+                    + ": queue=" + queueSize + "/" + queueCapacity
+                    + ", workers=" + aliveWorkers + "/" + workers
+                    + ", accepted=" + accepted
+                    + ", shed=" + shed
+                    + ", processed=" + processed
+                    + ", filtered=" + filtered
+                    + ", failed=" + failed
+                    + ", avg=" + TimeUnit.NANOSECONDS.toMicros(busyNanos / done) + "us";
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Pipeline<Integer> pipeline = Pipeline.<Integer>builder("demo")
+                .stage("parse", 2, 100, Backpressure.BLOCK, i -> "order-" + i)
+                .stage("enrich", 4, 100, Backpressure.BLOCK, s -> {
+                    sleep(2);
+                    return s.length();
+                })
+                .sink("save", 1, 50, Backpressure.BLOCK, len -> sleep(1))
+                .start();
+
+        List<StageStats> last = pipeline.stats();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 3000; i++) {
+            // save最慢（单线程 * 1ms = 不到1000/s），各级队列依次排满后submit被阻塞，生产速度自动降到瓶颈的吞吐
+            pipeline.submit(i);
+            if (i % 1000 == 999) {
+                List<StageStats> now = pipeline.stats();
+                for (int s = 0; s < now.size(); s++) {
+                    System.out.println(String.format("%s, %.0f/s, utilization %.0f%%", now.get(s),
+                            now.get(s).throughputSince(last.get(s)), now.get(s).utilizationSince(last.get(s)) * 100));
+                }
+                last = now;
+            }
+        }
+        pipeline.close();
+        System.out.println("terminated: " + pipeline.awaitTermination(30, TimeUnit.SECONDS)
+                + ", cost " + (System.currentTimeMillis() - start) + "ms");
+        pipeline.stats().forEach(System.out::println);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.kunbu.java.basic.base.thread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 根据排队延迟和CPU使用率，定时调整MonitoredThreadPool的core/max
+ *
+ * 每个周期取一次快照，和上一次做差得到这段时间内的平均排队耗时：
+ *      1.排队耗时 > 目标值，且CPU还有余量：说明线程不够用，core/max各加step
+ *      2.排队耗时 < 目标值/2，且队列为空：说明线程富余，core/max各减step
+ *      3.CPU已经打满时不再扩容，加线程只会增加上下文切换
+ *
+ * CPU使用率优先用com.sun.management.OperatingSystemMXBean.getProcessCpuLoad()，
+ * 拿不到时退化为 getSystemLoadAverage() / Ncpu
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-17 10:40
+ **/
+public class PoolTuner {
+
+    private final MonitoredThreadPool pool;
+    private final int minCore;
+    private final int maxCore;
+    private final int step;
+    private final long targetQueueWaitNanos;
+    private final double cpuHighWatermark;
+    private final ScheduledExecutorService scheduler;
+
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final int cpuSize = Runtime.getRuntime().availableProcessors();
+
+    private MonitoredThreadPool.Snapshot last;
+
+    public PoolTuner(MonitoredThreadPool pool, int minCore, int maxCore, long targetQueueWait, TimeUnit unit) {
+        this(pool, minCore, maxCore, 1, unit.toNanos(targetQueueWait), 0.85);
+    }
+
+    public PoolTuner(MonitoredThreadPool pool, int minCore, int maxCore, int step,
+                     long targetQueueWaitNanos, double cpuHighWatermark) {
+        if (minCore < 1 || maxCore < minCore || step < 1) {
+            throw new IllegalArgumentException("minCore=" + minCore + ", maxCore=" + maxCore + ", step=" + step);
+        }
+        this.pool = pool;
+        this.minCore = minCore;
+        this.maxCore = maxCore;
+        this.step = step;
+        this.targetQueueWaitNanos = targetQueueWaitNanos;
+        this.cpuHighWatermark = cpuHighWatermark;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("pool-tuner-%d").setDaemon(true).build());
+    }
+
+    public PoolTuner start(long period, TimeUnit unit) {
+        last = pool.snapshot();
+        scheduler.scheduleWithFixedDelay(this::tune, period, period, unit);
+        return this;
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    void tune() {
+        if (pool.isShutdown()) {
+            stop();
+            return;
+        }
+        MonitoredThreadPool.Snapshot now = pool.snapshot();
+        long startedDelta = now.started - last.started;
+        long avgWait = startedDelta == 0 ? 0 : (now.queueWaitNanos - last.queueWaitNanos) / startedDelta;
+        last = now;
+
+        double cpu = cpuLoad();
+        int core = now.corePoolSize;
+        // 任务堆在队列里却一个都没开始执行，也算排队过久
+        boolean starving = startedDelta == 0 && now.queueSize > 0;
+
+        if ((avgWait > targetQueueWaitNanos || starving) && cpu < cpuHighWatermark && core < maxCore) {
+            int newCore = Math.min(core + step, maxCore);
+            pool.resize(newCore, newCore * 2);
+        } else if (avgWait < targetQueueWaitNanos / 2 && now.queueSize == 0 && core > minCore) {
+            int newCore = Math.max(core - step, minCore);
+            pool.resize(newCore, newCore * 2);
+        }
+    }
+
+    /**
+     * 进程CPU使用率，范围[0, 1]，拿不到时返回0（即不因CPU限制扩容）
+     */
+    double cpuLoad() {
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad();
+            if (load >= 0) {
+                return load;
+            }
+        }
+        double avg = os.getSystemLoadAverage();
+        return avg < 0 ? 0 : Math.min(avg / cpuSize, 1.0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * 对区间[from, to)递归二分的ForkJoin任务，区间不大于threshold时直接计算
+ *
+ * 左半fork出去（压入当前线程队列，可被窃取），右半在当前线程继续拆分，最后join左半再合并
+ *
+ *      long sum = pool.invoke(RangeTask.of(0, arr.length, parallelism, (from, to) -> {...}, Long::sum));
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 09:50
+ **/
+public class RangeTask<R> extends RecursiveTask<R> {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 每个线程大约分到的叶子任务数，多一些便于窃取时负载均衡，太多则拆分开销变大 */
+    private static final int LEAVES_PER_THREAD = 8;
+
+    private final int from;
+    private final int to;
+    private final int threshold;
+    private final Leaf<R> leaf;
+    private final BinaryOperator<R> combiner;
+
+    public RangeTask(int from, int to, int threshold, Leaf<R> leaf, BinaryOperator<R> combiner) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold=" + threshold);
+        }
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+        this.leaf = leaf;
+        this.combiner = combiner;
+    }
+
+    /**
+     * 按并行度推算拆分粒度
+     */
+    public static <R> RangeTask<R> of(int from, int to, int parallelism, Leaf<R> leaf, BinaryOperator<R> combiner) {
+        int threshold = Math.max(1, (to - from) / (parallelism * LEAVES_PER_THREAD));
+        return new RangeTask<>(from, to, threshold, leaf, combiner);
+    }
+
+    public static <R> RangeTask<R> of(int from, int to, ForkJoinPool pool, Leaf<R> leaf, BinaryOperator<R> combiner) {
+        return of(from, to, pool.getParallelism(), leaf, combiner);
+    }
+
+    @Override
+    protected R compute() {
+        if (to - from <= threshold) {
+            return leaf.compute(from, to);
+        }
+        int mid = (from + to) >>> 1;
+        ForkJoinTask<R> left = new RangeTask<>(from, mid, threshold, leaf, combiner).fork();
+        R right = new RangeTask<>(mid, to, threshold, leaf, combiner).compute();
+        return combiner.apply(left.join(), right);
+    }
+
+    public interface Leaf<R> {
+        R compute(int from, int to);
+    }
+}
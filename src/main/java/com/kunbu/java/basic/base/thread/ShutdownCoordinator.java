@@ -0,0 +1,97 @@
+package com.kunbu.java.basic.base.thread;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有时限的线程池关闭，避免closePool()里任务卡住时无限等待
+ *
+ * 分三个阶段：
+ *      1.drain：shutdown()，不再接收新任务，等已提交的任务（含队列中的）在drainTimeout内执行完
+ *      2.interrupt：仍未结束则shutdownNow()，中断正在运行的任务，取回队列中还没执行的任务
+ *      3.grace：中断后再等graceTimeout，给响应中断的任务收尾；不响应中断的任务只能放弃等待
+ *
+ * 取回的任务交给调用方持久化或重新提交；每个阶段的耗时记录在Result中
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 14:10
+ **/
+public class ShutdownCoordinator {
+
+    private final long drainTimeoutNanos;
+    private final long graceTimeoutNanos;
+
+    public ShutdownCoordinator(long drainTimeout, long graceTimeout, TimeUnit unit) {
+        this.drainTimeoutNanos = unit.toNanos(drainTimeout);
+        this.graceTimeoutNanos = unit.toNanos(graceTimeout);
+    }
+
+    /**
+     * 当前线程被中断时立即进入interrupt阶段，并在返回前恢复中断标记
+     */
+    public Result shutdown(ExecutorService pool) {
+        boolean interrupted = false;
+        long start = System.nanoTime();
+
+        pool.shutdown();
+        boolean terminated = false;
+        try {
+            terminated = pool.awaitTermination(drainTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        long drained = System.nanoTime();
+        if (terminated) {
+            return new Result(true, Collections.<Runnable>emptyList(), drained - start, 0L, 0L);
+        }
+
+        List<Runnable> unexecuted = pool.shutdownNow();
+        long interruptDone = System.nanoTime();
+
+        try {
+            terminated = pool.awaitTermination(graceTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            interrupted = true;
+        }
+        long end = System.nanoTime();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return new Result(terminated, unexecuted, drained - start, interruptDone - drained, end - interruptDone);
+    }
+
+    public static final class Result {
+
+        /** false表示仍有不响应中断的任务在运行 */
+        public final boolean terminated;
+        /** 队列中没来得及执行的任务 */
+        public final List<Runnable> unexecuted;
+        public final long drainNanos;
+        public final long interruptNanos;
+        public final long graceNanos;
+
+        Result(boolean terminated, List<Runnable> unexecuted, long drainNanos, long interruptNanos, long graceNanos) {
+            this.terminated = terminated;
+            this.unexecuted = unexecuted;
+            this.drainNanos = drainNanos;
+            this.interruptNanos = interruptNanos;
+            this.graceNanos = graceNanos;
+        }
+
+        public long totalNanos() {
+            return drainNanos + interruptNanos + graceNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "terminated=" + terminated
+                    + ", unexecuted=" + unexecuted.size()
+                    + ", drain=" + TimeUnit.NANOSECONDS.toMillis(drainNanos) + "ms"
+                    + ", interrupt=" + TimeUnit.NANOSECONDS.toMillis(interruptNanos) + "ms"
+                    + ", grace=" + TimeUnit.NANOSECONDS.toMillis(graceNanos) + "ms";
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.kunbu.java.basic.base.thread;
 
 /**
+ * 所有线程争同一把对象锁，核数多时吞吐反而下降，热点计数改用Counters中的实现
+ *
  * @project: java-basic
  * @author: kunbu
  * @create: 2020-02-19 13:33
@@ -1,5 +1,7 @@
 package com.kunbu.java.basic.base.thread;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * 线程中断
  *
@@ -86,6 +88,28 @@ public class ThreadInterrupt {
     }
 
 
+    /**
+     * [3] 上面两种都在空while里空转，CancellationToken把标记检查和空闲等待合在一起：没活干时park，取消时被唤醒
+     */
+    public static void interruptByToken() throws InterruptedException {
+        CancellationToken token = CancellationToken.create();
+        Thread t3 = new Thread(() -> {
+            printThreadInfo(Thread.currentThread(), "进入循环前 ");
+            while (!token.isCancelled()) {
+                // 每次最多空闲100ms，期间是WAITING状态，不占CPU
+                token.idle(100, TimeUnit.MILLISECONDS);
+            }
+            printThreadInfo(Thread.currentThread(), "线程取消，循环结束 ");
+        });
+        t3.start();
+        Thread.sleep(1000);
+        printThreadInfo(t3, "取消前 ");
+        token.cancel();
+        Thread.sleep(100);
+        printThreadInfo(t3);
+    }
+
+
     /**
      * 2.演示如何中断"阻塞状态"下的线程，线程自己响应中断的异常，清除标记并抛出异常
      *
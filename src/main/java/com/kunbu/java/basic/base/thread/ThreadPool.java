@@ -2,7 +2,9 @@ package com.kunbu.java.basic.base.thread;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -21,15 +23,22 @@ public class ThreadPool {
     private static final Long KEEP_ALIVE_TIME = 1L;
 
 
-    public static void myThreadPool() {
-
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+    /**
+     * 自定义参数的线程池：5~10个线程，有界队列20，满了由提交线程自己执行
+     */
+    public static ThreadPoolExecutor newMyThreadPool() {
+        return new ThreadPoolExecutor(
                 CORE_POOL_SIZE,
                 MAX_POOL_SIZE,
                 KEEP_ALIVE_TIME,
                 TimeUnit.SECONDS,
                 new ArrayBlockingQueue<>(QUEUE_CAPACITY),
                 new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static void myThreadPool() {
+
+        ThreadPoolExecutor executor = newMyThreadPool();
 
         for (int i = 0; i < 30; i++) {
             executor.execute(() -> {
@@ -42,11 +51,9 @@ public class ThreadPool {
                 System.out.println(Thread.currentThread().getName() + " End. Time = " + new Date());
             });
         }
-        //终止线程池
-        executor.shutdown();
-        while (!executor.isTerminated()) {
-        }
-        System.out.println("Finished all threads");
+        //终止线程池，原来是while (!executor.isTerminated()) {} 空转等待
+        ShutdownCoordinator.Result result = new ShutdownCoordinator(10, 5, TimeUnit.SECONDS).shutdown(executor);
+        System.out.println("Finished all threads: " + result);
     }
 
 
@@ -85,56 +92,124 @@ public class ThreadPool {
     public static ExecutorService getThreadPool() {
         int cpuSize = Runtime.getRuntime().availableProcessors();
         System.out.println("本机CPU核心数：" + cpuSize);
-        ExecutorService pool = new ThreadPoolExecutor(
+        // 原来在beforeExecute中每个任务println一次，System.out内部加锁，并发高时反而成了瓶颈，改为无锁计数，需要时取snapshot()
+        return new MonitoredThreadPool(
                 cpuSize,
                 cpuSize * 2,
                 0L,
                 TimeUnit.MILLISECONDS,
                 new LinkedBlockingDeque<Runnable>(1024),
                 new ThreadFactoryBuilder().setNameFormat("go-pool-%d").build(),
-                new ThreadPoolExecutor.AbortPolicy()) {
-
-            @Override
-            protected void beforeExecute(Thread t, Runnable r) {
-                System.out.println("抛弃策略（执行前）：" + t + " >>> " + r);
-            }
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
-            @Override
-            protected void afterExecute(Runnable r, Throwable t) {
-//						System.out.println("抛弃策略（执行后）：" + r);
-            }
-        };
+    /**
+     * 可自动调整线程数的线程池：core在[Ncpu, 4*Ncpu]之间，每秒根据排队耗时和CPU使用率调整一次
+     *
+     * 池关闭后调节线程自动退出
+     */
+    public static MonitoredThreadPool getTunedThreadPool() {
+        int cpuSize = Runtime.getRuntime().availableProcessors();
+        MonitoredThreadPool pool = (MonitoredThreadPool) getThreadPool();
+        new PoolTuner(pool, cpuSize, cpuSize * 4, 10, TimeUnit.MILLISECONDS).start(1, TimeUnit.SECONDS);
         return pool;
     }
 
     /**
-     * 优雅的关闭线程池
+     * CPU密集型任务的ForkJoin模式：并行度为Ncpu，外部提交上限1024，超出抛RejectedExecutionException
+     *
+     * 配合RangeTask递归拆分，关闭同样用closePool()
      */
-    public static void closePool(ExecutorService pool) throws InterruptedException {
-        if (pool != null) {
-            //已经提交的任务会执行完
-            System.out.println(Thread.currentThread().getName() + " >>> 开始关闭线程池");
-            pool.shutdown();
-            /**
-             * 判断线程池是否终止，每隔1秒检查并提醒
-             *
-             * 其中awaitTermination的timeout表示超时时间
-             * 		1.timeout内，如果线程池终止了，返回true，否则一直阻塞（无限循环的检查）
-             * 		2.超过timeout，线程池池终止了返回true，否则返回false
-             */
-            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
-                System.out.println("尚有程序还在执行...线程池是否停止运行：" + pool.isTerminated());
+    public static ForkJoinPool getForkJoinPool() {
+        int cpuSize = Runtime.getRuntime().availableProcessors();
+        return new BoundedForkJoinPool(cpuSize, 1024, "fj-pool-");
+    }
+
+    /**
+     * ForkJoin求和
+     */
+    public static void testForkJoin() throws InterruptedException {
+        long[] numbers = new long[10_000_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i;
+        }
+        ForkJoinPool pool = getForkJoinPool();
+        long sum = pool.invoke(RangeTask.of(0, numbers.length, pool, (from, to) -> {
+            long s = 0;
+            for (int i = from; i < to; i++) {
+                s += numbers[i];
             }
-            //跳出循环时表示线程池完全终止了
-            System.out.println("线程池是否停止运行：" + pool.isTerminated());
+            return s;
+        }, Long::sum));
+        System.out.println("sum = " + sum + ", steal = " + pool.getStealCount());
+        closePool(pool);
+    }
 
-            //关闭后，如果再提交任务会抛出RejectedExecutionException
+    /**
+     * IO密集型任务的虚拟线程模式（JDK21+，低版本退化为缓存线程池）：每个任务一个线程，用信号量限制并发数，代替调队列长度
+     */
+    public static LimitedExecutorService getVirtualThreadPool(int maxConcurrency) {
+        return new LimitedExecutorService(VirtualThreads.newThreadPerTaskExecutor("vt-pool-"), maxConcurrency);
+    }
+
+    /**
+     * 1万个阻塞1秒的任务，并发上限1000（虚拟线程下可以直接放开到1万），约10秒跑完
+     */
+    public static void testVirtualThreads() throws InterruptedException {
+        System.out.println("支持虚拟线程：" + VirtualThreads.isSupported());
+        LimitedExecutorService pool = getVirtualThreadPool(1000);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 10_000; i++) {
+            pool.execute(() -> {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        closePool(pool);
+        System.out.println("耗时：" + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * 优雅的关闭线程池，最多等待60秒，之后中断运行中的任务再等10秒
+     *
+     * 原来是while (!pool.awaitTermination(1, TimeUnit.SECONDS)) 无限循环，某个任务卡住就永远退不出来
+     */
+    public static void closePool(ExecutorService pool) throws InterruptedException {
+        if (pool == null) {
+            return;
+        }
+        System.out.println(Thread.currentThread().getName() + " >>> 开始关闭线程池");
+        List<Runnable> lefts = closePool(pool, 60, 10, TimeUnit.SECONDS);
+        //关闭后，如果再提交任务会抛出RejectedExecutionException
 //			pool.execute(() -> {});
+        System.out.println("线程池是否停止运行：" + pool.isTerminated() + "，未执行的任务数：" + lefts.size());
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
 
-            //强制关闭线程池，运行中的任务全部被中断取消，抛弃并返回队列中等待的任务
-//			List<Runnable> lefts = pool.shutdownNow();
-//			System.out.println("等待中的任务数：" + lefts.size()); //MISSION_SIZE=50时打印出42
+    /**
+     * 其中awaitTermination的timeout表示超时时间
+     * 		1.timeout内，如果线程池终止了，返回true，否则一直阻塞
+     * 		2.超过timeout，线程池池终止了返回true，否则返回false
+     *
+     * 超时后shutdownNow()强制关闭线程池，运行中的任务全部被中断取消，抛弃并返回队列中等待的任务（MISSION_SIZE=50时返回42个）
+     *
+     * 当前线程被中断时不抛InterruptedException（那样取回的任务就丢了），而是直接进入中断阶段，
+     * 照常返回未执行的任务，并保留中断标记，由调用方检查Thread.interrupted()
+     *
+     * @param drainTimeout 等待已提交任务执行完的时限
+     * @param graceTimeout 中断后再等待的时限
+     * @return 队列中没来得及执行的任务，由调用方决定持久化或重新提交
+     */
+    public static List<Runnable> closePool(ExecutorService pool, long drainTimeout, long graceTimeout, TimeUnit unit) {
+        if (pool == null) {
+            return Collections.emptyList();
         }
+        return new ShutdownCoordinator(drainTimeout, graceTimeout, unit).shutdown(pool).unexecuted;
     }
 
     public static void main(String[] args) {
@@ -154,6 +229,9 @@ public class ThreadPool {
                 });
             }
             System.out.println(">>> 任务已全部提交");
+            if (pool instanceof MonitoredThreadPool) {
+                System.out.println(((MonitoredThreadPool) pool).snapshot());
+            }
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
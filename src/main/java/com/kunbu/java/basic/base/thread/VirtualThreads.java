@@ -0,0 +1,73 @@
+package com.kunbu.java.basic.base.thread;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程（JDK21）
+ *
+ * 工程按1.8编译，这里通过反射调用Thread.ofVirtual()，运行在JDK21+上时每个任务一个虚拟线程：
+ * 虚拟线程阻塞（sleep/IO）时从载体线程上卸载，栈保存在堆中，几KB起步，上万个并发阻塞任务也不会像平台线程那样耗尽内存；
+ * 低版本JDK退化为缓存线程池，需要配合LimitedExecutorService限制并发数，否则就是testExecutors()里OOM的情况
+ *
+ * 不需要用JDK21重新编译（lombok 1.16.6也跑不了javac 9+），照常按1.8打包，用JDK21运行即可：
+ *      mvn package && $JAVA21_HOME/bin/java -cp target/java-basic-0.0.1-SNAPSHOT.jar ...
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 10:40
+ **/
+public class VirtualThreads {
+
+    private static final boolean SUPPORTED;
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ReflectiveOperationException e) {
+            // JDK21以下没有虚拟线程
+            ofVirtual = null;
+        }
+        SUPPORTED = ofVirtual != null;
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * 每个任务一个线程：支持时是虚拟线程，否则是缓存线程池（线程可复用，但数量不设上限）
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!SUPPORTED) {
+            return Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(namePrefix + "%d").build());
+        }
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.kunbu.java.basic.jvm.ObjectSize;
+
+import com.kunbu.java.basic.jvm.primitive.IntArrayList;
+import com.kunbu.java.basic.jvm.primitive.LongHashSet;
+import com.kunbu.java.basic.jvm.primitive.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * 装箱集合和jvm.primitive下基本类型集合的内存占用对比，用ObjectGraphSizer量深大小
+ *
+ * 装箱集合的对象数和元素数同阶，10M时精确遍历太慢，用采样（结果前带~）；基本类型集合只有几个数组，直接精确计算
+ *
+ * 10M的HashMap<Long, Integer>本身就要700M+，运行时给足堆：
+ *
+ *      java -Xmx4g ... CollectionFootprint
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 14:00
+ **/
+public class CollectionFootprint {
+
+    private static final ObjectGraphSizer SAMPLED = new ObjectGraphSizer(100_000, 10_000);
+
+    public static void main(String[] args) {
+        System.out.println(LayoutAnalyzer.HEADER_SIZE + "B header, " + LayoutAnalyzer.REFERENCE_SIZE + "B reference");
+        System.out.println(String.format("%-26s %10s %16s %10s", "collection", "entries", "bytes", "B/entry"));
+        for (int n : new int[]{1_000_000, 10_000_000}) {
+            report("HashMap<Long, Integer>", n, CollectionFootprint::boxedMap);
+            report("LongIntHashMap", n, CollectionFootprint::primitiveMap);
+            report("HashSet<Long>", n, CollectionFootprint::boxedSet);
+            report("LongHashSet", n, CollectionFootprint::primitiveSet);
+            report("ArrayList<Integer>", n, CollectionFootprint::boxedList);
+            report("IntArrayList", n, CollectionFootprint::primitiveList);
+        }
+    }
+
+    private static void report(String name, int n, IntFunction<Object> factory) {
+        Object collection = factory.apply(n);
+        ObjectGraphSizer.Result result = SAMPLED.measure(collection);
+        System.out.println(String.format("%-26s %10d %16s %10.1f", name, n,
+                (result.isEstimated() ? "~" : "") + result.getBytes(), (double) result.getBytes() / n));
+    }
+
+    /**
+     * key打散一些，避免全部落在连续的桶里
+     */
+    private static long key(int i) {
+        return i * 31L + 7;
+    }
+
+    private static Object boxedMap(int n) {
+        Map<Long, Integer> map = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            map.put(key(i), i);
+        }
+        return map;
+    }
+
+    private static Object primitiveMap(int n) {
+        LongIntHashMap map = new LongIntHashMap();
+        for (int i = 0; i < n; i++) {
+            map.put(key(i), i);
+        }
+        return map;
+    }
+
+    private static Object boxedSet(int n) {
+        Set<Long> set = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            set.add(key(i));
+        }
+        return set;
+    }
+
+    private static Object primitiveSet(int n) {
+        LongHashSet set = new LongHashSet();
+        for (int i = 0; i < n; i++) {
+            set.add(key(i));
+        }
+        return set;
+    }
+
+    private static Object boxedList(int n) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+
+    private static Object primitiveList(int n) {
+        IntArrayList list = new IntArrayList();
+        for (int i = 0; i < n; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,299 @@
+package com.kunbu.java.basic.jvm.ObjectSize;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 对象内存布局分析，在UnsafeUtil.getFiledOffset()的基础上给出结构化结果：
+ *      对象头大小、每个字段（含父类字段）的偏移和大小、字段之间的空隙、末尾对齐补齐，以及浪费的字节数
+ *
+ * 对象头：通过只有一个byte字段的探测类得到第一个字段的偏移，开启压缩类指针时为12，否则16
+ * 引用大小：Object[]的arrayIndexScale，开启压缩指针时为4，否则8
+ * 对齐：-XX:ObjectAlignmentInBytes，默认8
+ *
+ * 结果可以和JOL的ClassLayout.parseClass(cls).toPrintable()对照
+ * PS：JDK12之后反射会过滤掉部分JDK内部类的字段（如Thread），这类子类的空隙会偏大
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-19 09:30
+ **/
+public class LayoutAnalyzer {
+
+    public static final int HEADER_SIZE = (int) UnsafeUtil.objectFieldOffset(probeField());
+    public static final int REFERENCE_SIZE = UnsafeUtil.getUnsafe().arrayIndexScale(Object[].class);
+    public static final int OBJECT_ALIGNMENT = detectAlignment();
+
+    /**
+     * 分析一个类的实例布局
+     */
+    public static Layout analyze(Class<?> cls) {
+        if (cls.isArray() || cls.isPrimitive() || cls.isInterface()) {
+            throw new IllegalArgumentException("Not an instance class: " + cls.getName());
+        }
+        List<FieldInfo> fields = new ArrayList<>();
+        for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(f.getModifiers())) {
+                    fields.add(new FieldInfo(f, UnsafeUtil.objectFieldOffset(f), sizeOf(f.getType())));
+                }
+            }
+        }
+        fields.sort(Comparator.comparingLong(f -> f.offset));
+
+        List<Gap> gaps = new ArrayList<>();
+        long cursor = HEADER_SIZE;
+        for (FieldInfo f : fields) {
+            if (f.offset > cursor) {
+                gaps.add(new Gap(cursor, (int) (f.offset - cursor)));
+            }
+            cursor = Math.max(cursor, f.offset + f.size);
+        }
+        long instanceSize = align(cursor);
+        return new Layout(cls, fields, gaps, cursor, instanceSize);
+    }
+
+    /**
+     * 扫描包（含子包）下的所有类，按每个实例浪费的字节数降序
+     *
+     * 枚举也有实例（每个常量一个），照常分析；分析失败的类（JDK15+的record、隐藏类取不到字段偏移，
+     * 或者字段类型加载不到）跳过并打印原因，和加载失败的类一样不影响其他类
+     */
+    public static List<Layout> scanPackage(String packageName) throws IOException {
+        List<Layout> layouts = new ArrayList<>();
+        for (Class<?> cls : findClasses(packageName)) {
+            if (cls.isInterface() || cls.isAnnotation() || Modifier.isAbstract(cls.getModifiers())) {
+                continue;
+            }
+            try {
+                layouts.add(analyze(cls));
+            } catch (RuntimeException | LinkageError e) {
+                System.err.println("Skip " + cls.getName() + ": " + e);
+            }
+        }
+        layouts.sort(Comparator.comparingLong(Layout::wastedBytes).reversed()
+                .thenComparing(l -> l.cls.getName()));
+        return layouts;
+    }
+
+    public static String report(List<Layout> layouts) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%8s %8s %8s %8s  %s%n", "SIZE", "FIELDS", "GAPS", "WASTED", "CLASS"));
+        for (Layout l : layouts) {
+            sb.append(String.format("%8d %8d %8d %8d  %s%n",
+                    l.instanceSize, l.fieldBytes(), l.gapBytes(), l.wastedBytes(), l.cls.getName()));
+        }
+        return sb.toString();
+    }
+
+    static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    static long align(long size) {
+        return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+    }
+
+    private static Field probeField() {
+        try {
+            return HeaderProbe.class.getDeclaredField("b");
+        } catch (NoSuchFieldException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static int detectAlignment() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Integer.parseInt(bean.getVMOption("ObjectAlignmentInBytes").getValue());
+        } catch (Exception e) {
+            // 非HotSpot虚拟机
+            return 8;
+        }
+    }
+
+    private static List<Class<?>> findClasses(String packageName) throws IOException {
+        String path = packageName.replace('.', '/');
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        List<String> names = new ArrayList<>();
+        Enumeration<URL> urls = loader.getResources(path);
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            if ("file".equals(url.getProtocol())) {
+                collectFromDirectory(new File(URLDecoder.decode(url.getFile(), "UTF-8")), packageName, names);
+            } else if ("jar".equals(url.getProtocol())) {
+                try (JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile()) {
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        String entry = entries.nextElement().getName();
+                        if (entry.startsWith(path + "/") && entry.endsWith(".class")) {
+                            names.add(entry.substring(0, entry.length() - 6).replace('/', '.'));
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(names);
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            try {
+                // 不初始化，避免触发静态代码块
+                classes.add(Class.forName(name, false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.err.println("Skip " + name + ": " + e);
+            }
+        }
+        return classes;
+    }
+
+    private static void collectFromDirectory(File dir, String packageName, List<String> names) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collectFromDirectory(file, packageName + "." + file.getName(), names);
+            } else if (file.getName().endsWith(".class")) {
+                names.add(packageName + "." + file.getName().substring(0, file.getName().length() - 6));
+            }
+        }
+    }
+
+    static class HeaderProbe {
+        byte b;
+    }
+
+    public static final class FieldInfo {
+
+        public final Field field;
+        public final long offset;
+        public final int size;
+
+        FieldInfo(Field field, long offset, int size) {
+            this.field = field;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        public boolean isInherited(Class<?> owner) {
+            return field.getDeclaringClass() != owner;
+        }
+    }
+
+    public static final class Gap {
+
+        public final long offset;
+        public final int size;
+
+        Gap(long offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+    }
+
+    public static final class Layout {
+
+        public final Class<?> cls;
+        public final List<FieldInfo> fields;
+        /** 字段之间（含对象头和第一个字段之间）的空隙 */
+        public final List<Gap> gaps;
+        /** 最后一个字段结束的位置 */
+        public final long dataEnd;
+        /** 对齐后的实例大小 */
+        public final long instanceSize;
+
+        Layout(Class<?> cls, List<FieldInfo> fields, List<Gap> gaps, long dataEnd, long instanceSize) {
+            this.cls = cls;
+            this.fields = Collections.unmodifiableList(fields);
+            this.gaps = Collections.unmodifiableList(gaps);
+            this.dataEnd = dataEnd;
+            this.instanceSize = instanceSize;
+        }
+
+        public int headerSize() {
+            return HEADER_SIZE;
+        }
+
+        public long fieldBytes() {
+            long sum = 0;
+            for (FieldInfo f : fields) {
+                sum += f.size;
+            }
+            return sum;
+        }
+
+        public long gapBytes() {
+            long sum = 0;
+            for (Gap g : gaps) {
+                sum += g.size;
+            }
+            return sum;
+        }
+
+        /** 末尾对齐补齐 */
+        public long alignmentBytes() {
+            return instanceSize - dataEnd;
+        }
+
+        public long wastedBytes() {
+            return gapBytes() + alignmentBytes();
+        }
+
+        public String toPrintable() {
+            StringBuilder sb = new StringBuilder(cls.getName()).append(" object internals:\n");
+            sb.append(String.format("%6s %5s  %-20s %s%n", "OFFSET", "SIZE", "TYPE", "FIELD"));
+            sb.append(String.format("%6d %5d  %-20s %s%n", 0, HEADER_SIZE, "", "(object header)"));
+            int g = 0;
+            for (FieldInfo f : fields) {
+                while (g < gaps.size() && gaps.get(g).offset < f.offset) {
+                    Gap gap = gaps.get(g++);
+                    sb.append(String.format("%6d %5d  %-20s %s%n", gap.offset, gap.size, "", "(alignment/padding gap)"));
+                }
+                String name = f.isInherited(cls)
+                        ? f.field.getDeclaringClass().getSimpleName() + "." + f.field.getName()
+                        : f.field.getName();
+                sb.append(String.format("%6d %5d  %-20s %s%n", f.offset, f.size, f.field.getType().getSimpleName(), name));
+            }
+            if (alignmentBytes() > 0) {
+                sb.append(String.format("%6d %5d  %-20s %s%n", dataEnd, alignmentBytes(), "", "(loss due to the next object alignment)"));
+            }
+            sb.append("Instance size: ").append(instanceSize).append(" bytes\n");
+            sb.append("Space losses: ").append(gapBytes()).append(" bytes internal + ")
+                    .append(alignmentBytes()).append(" bytes external = ").append(wastedBytes()).append(" bytes total\n");
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.out.println(analyze(ObjectSize.class).toPrintable());
+        System.out.println(report(scanPackage(args.length > 0 ? args[0] : "com.kunbu.java.basic")));
+    }
+}
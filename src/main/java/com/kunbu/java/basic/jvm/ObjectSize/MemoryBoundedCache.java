@@ -0,0 +1,234 @@
+package com.kunbu.java.basic.jvm.ObjectSize;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按字节数而不是条目数淘汰的LRU缓存
+ *
+ * 条目数上限对大小差异很大的value（几十字节到几MB）没有意义，这里：
+ *      1.put时用Weigher计算条目的字节数（默认ObjectGraphSizer深大小：key + value + 链表节点），remove/覆盖时减去旧值，总数增量维护
+ *      2.总字节数超过预算时，从最久未访问的条目开始淘汰，直到回到预算内
+ *      3.estimatedBytes是各条目权重之和；measureActualBytes()对整个缓存做一次真实的对象图统计，
+ *        两者的差主要来自value之间共享的对象（如同一个字符串），估算值会偏大，所以预算偏保守
+ *
+ * 全局LRU顺序需要一把锁，读多写少、单个缓存不是热点时足够；更高并发可以按key分多个实例
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-19 14:00
+ **/
+public class MemoryBoundedCache<K, V> {
+
+    /** 每个条目的结构开销：LinkedHashMap.Entry + Weighted包装 + 桶数组中的一个引用槽 */
+    static final long ENTRY_OVERHEAD = entryOverhead();
+
+    private final long maxBytes;
+    private final Weigher<? super K, ? super V> weigher;
+    private final LinkedHashMap<K, Weighted<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedBytes;
+
+    public MemoryBoundedCache(long maxBytes) {
+        this(maxBytes, defaultWeigher());
+    }
+
+    public MemoryBoundedCache(long maxBytes, Weigher<? super K, ? super V> weigher) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes=" + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * 预算为最大堆（-Xmx）的一定比例
+     */
+    public static <K, V> MemoryBoundedCache<K, V> ofHeapFraction(double fraction) {
+        if (fraction <= 0 || fraction >= 1) {
+            throw new IllegalArgumentException("fraction=" + fraction);
+        }
+        return new MemoryBoundedCache<>((long) (Runtime.getRuntime().maxMemory() * fraction));
+    }
+
+    /**
+     * 深大小，大数组采样，避免一个巨大的value拖慢put
+     *
+     * 采样依赖ObjectGraphSizer只放大样本合计、不把系数带进子图；否则value是（或包含）LinkedHashMap、链表时
+     * 权重会大几百倍，缓存要么清空、要么直接拒绝这个value。main()里对这种value核对了采样值和精确值
+     */
+    public static <K, V> Weigher<K, V> defaultWeigher() {
+        ObjectGraphSizer sizer = new ObjectGraphSizer(4096, 256);
+        return (key, value) -> sizer.measure(key).getBytes() + sizer.measure(value).getBytes() + ENTRY_OVERHEAD;
+    }
+
+    public synchronized V get(K key) {
+        Weighted<V> w = map.get(key);
+        if (w == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return w.value;
+    }
+
+    /**
+     * 单个条目就超过预算时不放入缓存
+     *
+     * @return 旧值
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        // 计算大小可能较慢，放在锁外
+        long weight = weigher.weigh(key, value);
+        synchronized (this) {
+            if (weight > maxBytes) {
+                Weighted<V> old = map.remove(key);
+                if (old != null) {
+                    estimatedBytes -= old.weight;
+                }
+                return old == null ? null : old.value;
+            }
+            Weighted<V> old = map.put(key, new Weighted<>(value, weight));
+            estimatedBytes += weight;
+            if (old != null) {
+                estimatedBytes -= old.weight;
+            }
+            evictIfNeeded();
+            return old == null ? null : old.value;
+        }
+    }
+
+    public synchronized V remove(K key) {
+        Weighted<V> old = map.remove(key);
+        if (old == null) {
+            return null;
+        }
+        estimatedBytes -= old.weight;
+        return old.value;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        estimatedBytes = 0;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<K, Weighted<V>>> it = map.entrySet().iterator();
+        while (estimatedBytes > maxBytes && it.hasNext()) {
+            Weighted<V> eldest = it.next().getValue();
+            it.remove();
+            estimatedBytes -= eldest.weight;
+            evictions++;
+            evictedBytes += eldest.weight;
+        }
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * 遍历整个缓存统计真实占用（不含采样，共享对象只算一次），代价和缓存大小成正比，只用于监控/校准
+     */
+    public synchronized long measureActualBytes() {
+        return new ObjectGraphSizer().measure(map).getBytes();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(map.size(), maxBytes, estimatedBytes, hits, misses, evictions, evictedBytes);
+    }
+
+    public interface Weigher<K, V> {
+        long weigh(K key, V value);
+    }
+
+    static final class Weighted<V> {
+
+        final V value;
+        final long weight;
+
+        Weighted(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    public static final class Stats {
+
+        public final int size;
+        public final long maxBytes;
+        public final long estimatedBytes;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long evictedBytes;
+
+        Stats(int size, long maxBytes, long estimatedBytes, long hits, long misses, long evictions, long evictedBytes) {
+            this.size = size;
+            this.maxBytes = maxBytes;
+            this.estimatedBytes = estimatedBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.evictedBytes = evictedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "size=" + size + ", estimated=" + estimatedBytes + "/" + maxBytes + " bytes"
+                    + ", hits=" + hits + ", misses=" + misses
+                    + ", evictions=" + evictions + ", evictedBytes=" + evictedBytes;
+        }
+    }
+
+    /**
+     * 桶数组按负载因子0.75扩容，平均每个条目占1.33~2.67个槽，这里只按1个算，差额可以用measureActualBytes()对比
+     */
+    private static long entryOverhead() {
+        long entry;
+        try {
+            entry = LayoutAnalyzer.analyze(Class.forName("java.util.LinkedHashMap$Entry")).instanceSize;
+        } catch (Exception e) {
+            entry = 40L;
+        }
+        return entry + LayoutAnalyzer.analyze(Weighted.class).instanceSize + LayoutAnalyzer.REFERENCE_SIZE;
+    }
+
+    public static void main(String[] args) {
+        // 1MB预算，value从100字节到100KB不等
+        MemoryBoundedCache<String, byte[]> cache = new MemoryBoundedCache<>(1 << 20);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key-" + i, new byte[(i % 10 == 0) ? 100 * 1024 : 100]);
+        }
+        System.out.println(cache.stats());
+        System.out.println("actual bytes: " + cache.measureActualBytes());
+
+        // value内部元素互相引用时，默认weigher的采样估算不能偏离精确值
+        Map<Long, String> linked = new LinkedHashMap<>();
+        for (long i = 0; i < 200_000; i++) {
+            linked.put(i, "value-" + i);
+        }
+        long sampled = MemoryBoundedCache.<String, Map<Long, String>>defaultWeigher().weigh("linked", linked);
+        long exact = ObjectGraphSizer.deepSizeOf("linked") + ObjectGraphSizer.deepSizeOf(linked) + ENTRY_OVERHEAD;
+        System.out.println("LinkedHashMap value weight: sampled=" + sampled + ", exact=" + exact);
+        if (Math.abs(sampled - exact) > exact / 10) {
+            throw new IllegalStateException("Default weigher is off: " + sampled + " vs " + exact);
+        }
+    }
+}
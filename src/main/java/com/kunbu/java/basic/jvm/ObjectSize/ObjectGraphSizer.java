@@ -0,0 +1,289 @@
+package com.kunbu.java.basic.jvm.ObjectSize;
+
+import sun.misc.Unsafe;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 对象图的深大小（retained size的近似：从root出发可达的所有对象之和），不需要-javaagent
+ *
+ *      1.浅大小：有Instrumentation时用它，否则实例按LayoutAnalyzer的字段布局，数组按 对齐(arrayBaseOffset + length * indexScale)
+ *      2.遍历：显式栈代替递归（避免长链表栈溢出），IdentityHashMap记录已访问对象，环和共享引用只算一次
+ *      3.读取引用字段用Unsafe.getObject(obj, offset)，不需要setAccessible，JDK9+模块限制下也能读JDK内部类的字段
+ *      4.采样：引用数组长度超过sampleThreshold时（ArrayList、HashMap的底层都是数组），只均匀取sampleSize个元素遍历，
+ *        按非空元素数等比放大，结果标记为估算值。适合在线上估算大缓存，不必遍历每个元素。
+ *        所有元素先标记为已访问，样本子图按系数1遍历，只放大样本合计，见sampleArray()
+ *
+ * 不计入：Class对象、枚举常量（全局共享，不属于某个对象图）
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-19 11:00
+ **/
+public class ObjectGraphSizer {
+
+    private static final Unsafe UNSAFE = UnsafeUtil.getUnsafe();
+
+    /** 每个类的浅大小和引用字段偏移，只反射一次 */
+    private static final ClassValue<ClassInfo> CLASS_INFO = new ClassValue<ClassInfo>() {
+        @Override
+        protected ClassInfo computeValue(Class<?> type) {
+            return new ClassInfo(type);
+        }
+    };
+
+    private final int sampleThreshold;
+    private final int sampleSize;
+
+    /**
+     * 不采样，精确遍历
+     */
+    public ObjectGraphSizer() {
+        this(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public ObjectGraphSizer(int sampleThreshold, int sampleSize) {
+        if (sampleSize < 1 || sampleThreshold < sampleSize) {
+            throw new IllegalArgumentException("sampleThreshold=" + sampleThreshold + ", sampleSize=" + sampleSize);
+        }
+        this.sampleThreshold = sampleThreshold;
+        this.sampleSize = sampleSize;
+    }
+
+    public static long deepSizeOf(Object root) {
+        return new ObjectGraphSizer().measure(root).bytes;
+    }
+
+    /**
+     * 浅大小，以-javaagent启动（ObjectSizeFetcher.premain执行过）时取Instrumentation的值
+     */
+    public static long shallowSize(Object o) {
+        Instrumentation inst = ObjectSizeFetcher.getInstrumentation();
+        if (inst != null) {
+            return inst.getObjectSize(o);
+        }
+        return layoutSize(o);
+    }
+
+    /**
+     * 按字段布局计算的浅大小
+     */
+    static long layoutSize(Object o) {
+        Class<?> cls = o.getClass();
+        if (cls.isArray()) {
+            long size = UNSAFE.arrayBaseOffset(cls) + (long) UNSAFE.arrayIndexScale(cls) * Array.getLength(o);
+            return LayoutAnalyzer.align(size);
+        }
+        return CLASS_INFO.get(cls).shallowSize;
+    }
+
+    public Result measure(Object root) {
+        Result result = new Result();
+        if (root == null) {
+            return result;
+        }
+        Tally tally = new Tally();
+        walk(root, new IdentityHashMap<>(), tally, result);
+        result.bytes = Math.round(tally.bytes);
+        result.objectCount = Math.round(tally.count);
+        return result;
+    }
+
+    /**
+     * 从start出发遍历尚未访问的对象，计入tally；start本身可能已被标记为访问过（采样数组的元素），这里照常计入
+     */
+    private void walk(Object start, Map<Object, Boolean> visited, Tally tally, Result result) {
+        visited.put(start, Boolean.TRUE);
+        if (skip(start)) {
+            return;
+        }
+        Deque<Object> stack = new ArrayDeque<>();
+        visit(start, stack, visited, tally, result);
+        while (!stack.isEmpty()) {
+            Object obj = stack.pop();
+            if (visited.put(obj, Boolean.TRUE) != null || skip(obj)) {
+                continue;
+            }
+            visit(obj, stack, visited, tally, result);
+        }
+    }
+
+    private void visit(Object obj, Deque<Object> stack, Map<Object, Boolean> visited, Tally tally, Result result) {
+        tally.bytes += shallowSize(obj);
+        tally.count++;
+
+        Class<?> cls = obj.getClass();
+        if (cls.isArray()) {
+            if (cls.getComponentType().isPrimitive()) {
+                return;
+            }
+            Object[] array = (Object[]) obj;
+            if (array.length > sampleThreshold) {
+                result.estimated = true;
+                sampleArray(array, visited, tally, result);
+            } else {
+                for (Object element : array) {
+                    if (element != null) {
+                        stack.push(element);
+                    }
+                }
+            }
+        } else {
+            for (long offset : CLASS_INFO.get(cls).referenceOffsets) {
+                Object child = UNSAFE.getObject(obj, offset);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * 先把所有还没访问过的元素标记为已访问，再逐个遍历样本元素的子图（系数为1），只对样本的合计按比例放大。
+     *
+     * 不能把放大系数带进子图：LinkedHashMap的Entry、链表节点这类元素互相引用，系数会沿着链一路累乘，
+     * 20万条目的LinkedHashMap会估出几百倍；先标记也保证了元素之间、元素和图中其他部分共享的对象不会重复计算
+     */
+    private void sampleArray(Object[] array, Map<Object, Boolean> visited, Tally tally, Result result) {
+        List<Object> candidates = new ArrayList<>();
+        for (Object element : array) {
+            // 已经从别的路径访问过的元素不参与采样，也不参与放大
+            if (element != null && !visited.containsKey(element) && !skip(element)) {
+                candidates.add(element);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+        for (Object element : candidates) {
+            visited.put(element, Boolean.TRUE);
+        }
+        if (candidates.size() <= sampleSize) {
+            for (Object element : candidates) {
+                walk(element, visited, tally, result);
+            }
+            return;
+        }
+        // 等间隔取样，起点错开半个步长，避免总是取到开头的元素
+        Tally sampled = new Tally();
+        double step = (double) candidates.size() / sampleSize;
+        for (int i = 0; i < sampleSize; i++) {
+            walk(candidates.get((int) (step / 2 + i * step)), visited, sampled, result);
+        }
+        double scale = (double) candidates.size() / sampleSize;
+        tally.bytes += sampled.bytes * scale;
+        tally.count += sampled.count * scale;
+    }
+
+    private static boolean skip(Object obj) {
+        return obj instanceof Class || obj instanceof Enum;
+    }
+
+    static final class ClassInfo {
+
+        final long shallowSize;
+        final long[] referenceOffsets;
+
+        ClassInfo(Class<?> cls) {
+            shallowSize = cls.isArray() ? 0 : LayoutAnalyzer.analyze(cls).instanceSize;
+            List<Long> offsets = new ArrayList<>();
+            for (Class<?> c = cls; c != null; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive()) {
+                        offsets.add(UnsafeUtil.objectFieldOffset(f));
+                    }
+                }
+            }
+            referenceOffsets = new long[offsets.size()];
+            for (int i = 0; i < referenceOffsets.length; i++) {
+                referenceOffsets[i] = offsets.get(i);
+            }
+        }
+    }
+
+    /**
+     * 累加器，采样时样本单独累加再整体放大
+     */
+    static final class Tally {
+
+        double bytes;
+        double count;
+    }
+
+    public static final class Result {
+
+        long bytes;
+        long objectCount;
+        /** 是否有数组被采样 */
+        boolean estimated;
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getObjectCount() {
+            return objectCount;
+        }
+
+        public boolean isEstimated() {
+            return estimated;
+        }
+
+        @Override
+        public String toString() {
+            return (estimated ? "~" : "") + bytes + " bytes, " + objectCount + " objects";
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<Long, String> map = new HashMap<>();
+        for (long i = 0; i < 1_000_000; i++) {
+            map.put(i, "value-" + i);
+        }
+        long start = System.nanoTime();
+        Result exact = new ObjectGraphSizer().measure(map);
+        long exactCost = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Result sampled = new ObjectGraphSizer(10_000, 1_000).measure(map);
+        long sampledCost = System.nanoTime() - start;
+
+        System.out.println("exact:   " + exact + ", cost " + exactCost / 1_000_000 + "ms");
+        System.out.println("sampled: " + sampled + ", cost " + sampledCost / 1_000_000 + "ms");
+
+        // 元素互相引用的结构，原来系数沿链累乘，LinkedHashMap估出了约480倍
+        Map<Long, String> linkedMap = new LinkedHashMap<>();
+        List<String> linkedList = new LinkedList<>();
+        List<Long> arrayList = new ArrayList<>();
+        for (long i = 0; i < 200_000; i++) {
+            linkedMap.put(i, "value-" + i);
+            linkedList.add("value-" + i);
+            arrayList.add(i);
+        }
+        checkSampling("LinkedHashMap", linkedMap);
+        checkSampling("LinkedList", linkedList);
+        checkSampling("ArrayList", arrayList);
+    }
+
+    private static void checkSampling(String name, Object root) {
+        Result exact = new ObjectGraphSizer().measure(root);
+        Result sampled = new ObjectGraphSizer(10_000, 1_000).measure(root);
+        double ratio = (double) sampled.bytes / exact.bytes;
+        System.out.println(String.format("%-14s exact %s, sampled %s, ratio %.3f", name, exact, sampled, ratio));
+        if (ratio < 0.9 || ratio > 1.1) {
+            throw new IllegalStateException(name + " sampled size is off by " + ratio);
+        }
+    }
+}
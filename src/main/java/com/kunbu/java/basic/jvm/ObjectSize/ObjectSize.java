@@ -81,6 +81,9 @@ public class ObjectSize {
          * ref---offSet:44
          **/
         UnsafeUtil.getFiledOffset(ObjectSize.class);
+
+        // 结构化的布局：对象头、空隙、对齐补齐
+        System.out.println(LayoutAnalyzer.analyze(ObjectSize.class).toPrintable());
     }
 
 }
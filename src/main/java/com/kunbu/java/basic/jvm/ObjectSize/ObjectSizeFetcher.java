@@ -7,6 +7,8 @@ import java.lang.instrument.Instrumentation;
  * https://www.cnblogs.com/Kidezyq/p/8030098.html
  * https://blog.csdn.net/iter_zc/article/details/41822719
  *
+ * 需要-javaagent启动才会执行premain，否则instrumentation为null，这时退化为按字段布局计算（见ObjectGraphSizer.shallowSize）
+ *
  * @project: java-basic
  * @author: kunbu
  * @create: 2020-02-18 15:22
@@ -19,7 +21,18 @@ public class ObjectSizeFetcher {
         instrumentation = inst;
     }
 
+    public static boolean isInstrumented() {
+        return instrumentation != null;
+    }
+
+    static Instrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * 浅大小（不含引用的对象）
+     */
     public static long getObjectSize(Object o) {
-        return instrumentation.getObjectSize(o);
+        return ObjectGraphSizer.shallowSize(o);
     }
 }
@@ -24,6 +24,17 @@ public class UnsafeUtil {
         }
     }
 
+    public static Unsafe getUnsafe() {
+        return UNSAFE;
+    }
+
+    /**
+     * 字段相对对象起始地址的偏移
+     */
+    public static long objectFieldOffset(Field field) {
+        return UNSAFE.objectFieldOffset(field);
+    }
+
     /**
      * 获取对象在内存中对偏移起始位置
      *
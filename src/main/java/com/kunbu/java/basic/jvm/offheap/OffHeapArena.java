@@ -0,0 +1,383 @@
+package com.kunbu.java.basic.jvm.offheap;
+
+import com.kunbu.java.basic.jvm.ObjectSize.UnsafeUtil;
+import sun.misc.Unsafe;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外存储字符串和字节记录，几千万个key放在堆外，GC不需要扫描/复制它们
+ *
+ *      1.内存：Unsafe.allocateMemory按块（默认64MB）申请，块内指针碰撞分配，记录格式为 [int长度][字节]，字符串按UTF-8编码
+ *      2.句柄：long = 代数(高8位) << 56 | 块号(16位) << 40 | 块内偏移(低40位)，不直接暴露地址，
+ *        访问时校验代数、块号、偏移，以及记录长度不越出块的边界；每次reset()代数加1，之前的句柄全部失效
+ *      3.释放：arena式管理，单条free()只做统计不回收空间；reset()/close()整体释放，适合"整批构建、整批丢弃"的场景。
+ *        free()把记录头的长度改写为~length（负数）作为已释放标记，之后再读取或重复free()都按无效句柄处理
+ *      4.泄漏：每个arena登记创建时的堆栈，openArenas()可以查看；没有close()就被GC的arena，
+ *        在下一次创建arena时通过PhantomReference发现，打印创建堆栈并释放其内存
+ *
+ * 写入加锁（通常只有一个构建线程，锁无竞争）；读取持有StampedLock读锁，reset()/close()释放内存时持有写锁，
+ * 避免读线程正在copyMemory时块被freeMemory（use-after-free会直接让JVM崩溃）。
+ * 这里不能用乐观读：validate()失败前内存可能已经被释放并访问了
+ *
+ * PS：代数只有8位，256次reset()之后会回绕，回绕的旧句柄只能保证不越界，不能保证读到的是原来的记录
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-19 16:00
+ **/
+public class OffHeapArena implements AutoCloseable {
+
+    private static final Unsafe UNSAFE = UnsafeUtil.getUnsafe();
+    private static final long BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int CHUNK_BITS = 16;
+    private static final int MAX_CHUNKS = 1 << CHUNK_BITS;
+    private static final int GENERATION_SHIFT = OFFSET_BITS + CHUNK_BITS;
+    private static final int GENERATION_MASK = 0xFF;
+    private static final int HEADER = 4;
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    /** 未关闭的arena：PhantomReference -> 内存 */
+    private static final Map<Reference<?>, Memory> OPEN = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<OffHeapArena> LEAKED = new ReferenceQueue<>();
+
+    private final long chunkSize;
+    private final Memory memory;
+    private final Reference<OffHeapArena> ref;
+
+    /** 当前块已用字节 */
+    private long position;
+    private long liveRecords;
+    private long freedBytes;
+
+    public OffHeapArena() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapArena(long chunkSize) {
+        if (chunkSize < 1024 || chunkSize > OFFSET_MASK) {
+            throw new IllegalArgumentException("chunkSize=" + chunkSize);
+        }
+        reclaimLeaked();
+        this.chunkSize = chunkSize;
+        this.memory = new Memory(new Throwable("OffHeapArena created here"));
+        this.ref = new PhantomReference<>(this, LEAKED);
+        OPEN.put(ref, memory);
+        this.position = chunkSize;
+    }
+
+    public synchronized long putBytes(byte[] bytes) {
+        long handle = allocate(bytes.length);
+        long address = locate(handle);
+        UNSAFE.putInt(address, bytes.length);
+        UNSAFE.copyMemory(bytes, BYTE_ARRAY_OFFSET, null, address + HEADER, bytes.length);
+        return handle;
+    }
+
+    /**
+     * 直接在堆外编码UTF-8，不产生中间byte[]
+     */
+    public synchronized long putString(String s) {
+        int length = utf8Length(s);
+        long handle = allocate(length);
+        long address = locate(handle);
+        UNSAFE.putInt(address, length);
+        encodeUtf8(s, address + HEADER);
+        return handle;
+    }
+
+    public int length(long handle) {
+        long stamp = memory.lock.readLock();
+        try {
+            return UNSAFE.getInt(address(handle));
+        } finally {
+            memory.lock.unlockRead(stamp);
+        }
+    }
+
+    public byte[] getBytes(long handle) {
+        long stamp = memory.lock.readLock();
+        try {
+            long address = address(handle);
+            byte[] bytes = new byte[UNSAFE.getInt(address)];
+            UNSAFE.copyMemory(null, address + HEADER, bytes, BYTE_ARRAY_OFFSET, bytes.length);
+            return bytes;
+        } finally {
+            memory.lock.unlockRead(stamp);
+        }
+    }
+
+    public String getString(long handle) {
+        return new String(getBytes(handle), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 和堆内字节比较，查找时不需要把堆外数据拷贝出来
+     */
+    public boolean contentEquals(long handle, byte[] bytes) {
+        long stamp = memory.lock.readLock();
+        try {
+            long address = address(handle);
+            if (UNSAFE.getInt(address) != bytes.length) {
+                return false;
+            }
+            address += HEADER;
+            for (int i = 0; i < bytes.length; i++) {
+                if (UNSAFE.getByte(address + i) != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            memory.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 只记账并标记记录已释放，空间在reset()/close()时统一回收
+     *
+     * @throws IllegalArgumentException 句柄无效或已经free()过
+     */
+    public synchronized void free(long handle) {
+        if (liveRecords == 0) {
+            throw new IllegalStateException("No live records, invalid free: " + Long.toHexString(handle));
+        }
+        long stamp = memory.lock.readLock();
+        try {
+            // address()校验代数、块号、偏移和长度，已释放记录的长度为负，同样校验不通过
+            long address = address(handle);
+            int length = UNSAFE.getInt(address);
+            UNSAFE.putInt(address, ~length);
+            freedBytes += HEADER + length;
+            liveRecords--;
+        } finally {
+            memory.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 释放所有块，之前的句柄全部失效（代数加1，再访问抛IllegalArgumentException）
+     */
+    public synchronized void reset() {
+        memory.release();
+        position = chunkSize;
+        liveRecords = 0;
+        freedBytes = 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        reset();
+        OPEN.remove(ref);
+        ref.clear();
+    }
+
+    public long getLiveRecords() {
+        return liveRecords;
+    }
+
+    public synchronized long getAllocatedBytes() {
+        return memory.chunks.length * chunkSize;
+    }
+
+    public synchronized long getUsedBytes() {
+        int chunks = memory.chunks.length;
+        return chunks == 0 ? 0 : (chunks - 1) * chunkSize + position;
+    }
+
+    public long getFreedBytes() {
+        return freedBytes;
+    }
+
+    /**
+     * 还没有close()的arena的创建堆栈
+     */
+    public static List<Throwable> openArenas() {
+        List<Throwable> sites = new ArrayList<>();
+        for (Memory m : OPEN.values()) {
+            sites.add(m.createdAt);
+        }
+        return sites;
+    }
+
+    /**
+     * 回收已被GC但没有close()的arena的内存，返回回收的个数
+     */
+    public static int reclaimLeaked() {
+        int count = 0;
+        Reference<?> r;
+        while ((r = LEAKED.poll()) != null) {
+            Memory m = OPEN.remove(r);
+            if (m != null) {
+                System.err.println("OffHeapArena leaked " + m.chunks.length + " chunks, freed now");
+                m.createdAt.printStackTrace();
+                m.release();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long allocate(int length) {
+        long size = HEADER + (long) length;
+        if (size > chunkSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds chunk size " + chunkSize);
+        }
+        if (position + size > chunkSize) {
+            memory.addChunk(chunkSize);
+            position = 0;
+        }
+        long handle = ((long) memory.generation << GENERATION_SHIFT)
+                | ((long) (memory.chunks.length - 1) << OFFSET_BITS) | position;
+        position += size;
+        liveRecords++;
+        return handle;
+    }
+
+    /**
+     * 读取路径，调用方需持有读锁，返回记录头的地址
+     */
+    private long address(long handle) {
+        long address = locate(handle);
+        // 伪造的句柄可能指向记录中间，长度是任意值；已释放的记录长度为负
+        int length = UNSAFE.getInt(address);
+        if (length < 0 || (handle & OFFSET_MASK) + HEADER + length > chunkSize) {
+            throw new IllegalArgumentException("Invalid handle: " + Long.toHexString(handle) + ", length=" + length);
+        }
+        return address;
+    }
+
+    /**
+     * 只校验代数、块号和偏移；写入路径刚分配的记录还没有长度，只能用这个
+     */
+    private long locate(long handle) {
+        int generation = (int) (handle >>> GENERATION_SHIFT);
+        int chunk = (int) (handle >>> OFFSET_BITS) & (MAX_CHUNKS - 1);
+        long offset = handle & OFFSET_MASK;
+        long[] chunks = memory.chunks;
+        if (generation != memory.generation || chunk >= chunks.length || offset + HEADER > chunkSize) {
+            throw new IllegalArgumentException("Invalid handle: " + Long.toHexString(handle));
+        }
+        return chunks[chunk] + offset;
+    }
+
+    static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // 单独的代理项和String.getBytes(UTF_8)一样编码为'?'
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    private static void encodeUtf8(String s, long address) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                UNSAFE.putByte(address++, (byte) c);
+            } else if (c < 0x800) {
+                UNSAFE.putByte(address++, (byte) (0xC0 | (c >> 6)));
+                UNSAFE.putByte(address++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                UNSAFE.putByte(address++, (byte) (0xF0 | (cp >> 18)));
+                UNSAFE.putByte(address++, (byte) (0x80 | ((cp >> 12) & 0x3F)));
+                UNSAFE.putByte(address++, (byte) (0x80 | ((cp >> 6) & 0x3F)));
+                UNSAFE.putByte(address++, (byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                UNSAFE.putByte(address++, (byte) '?');
+            } else {
+                UNSAFE.putByte(address++, (byte) (0xE0 | (c >> 12)));
+                UNSAFE.putByte(address++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                UNSAFE.putByte(address++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    /**
+     * arena持有的本地内存，和arena对象分开，arena被GC后仍能通过它释放
+     */
+    static final class Memory {
+
+        final Throwable createdAt;
+        /** 读记录持有读锁，release()持有写锁 */
+        final StampedLock lock = new StampedLock();
+        /** 写时复制，追加块不需要写锁 */
+        volatile long[] chunks = new long[0];
+        /** 每次release()加1，写入在arena监视器内读、读取在读锁内读，都能看到最新值 */
+        int generation;
+
+        Memory(Throwable createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        void addChunk(long size) {
+            long[] old = chunks;
+            if (old.length >= MAX_CHUNKS) {
+                throw new OutOfMemoryError("OffHeapArena chunk limit reached");
+            }
+            long[] grown = new long[old.length + 1];
+            System.arraycopy(old, 0, grown, 0, old.length);
+            grown[old.length] = UNSAFE.allocateMemory(size);
+            chunks = grown;
+        }
+
+        void release() {
+            long stamp = lock.writeLock();
+            try {
+                long[] old = chunks;
+                chunks = new long[0];
+                generation = (generation + 1) & GENERATION_MASK;
+                for (long address : old) {
+                    UNSAFE.freeMemory(address);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        try (OffHeapArena arena = new OffHeapArena()) {
+            long[] handles = new long[10_000_000];
+            for (int i = 0; i < handles.length; i++) {
+                handles[i] = arena.putString("user:" + i + ":昆布");
+            }
+            System.out.println(arena.getString(handles[123456]));
+            arena.free(handles[0]);
+            try {
+                arena.free(handles[0]);
+                throw new IllegalStateException("double free not detected");
+            } catch (IllegalArgumentException expected) {
+                System.out.println("double free rejected: " + expected.getMessage());
+            }
+            System.out.println("records=" + arena.getLiveRecords() + ", used=" + arena.getUsedBytes()
+                    + ", allocated=" + arena.getAllocatedBytes() + ", freed=" + arena.getFreedBytes());
+            Runtime rt = Runtime.getRuntime();
+            System.out.println("heap used=" + (rt.totalMemory() - rt.freeMemory()));
+        }
+        System.out.println("open arenas: " + openArenas().size());
+    }
+}
@@ -0,0 +1,186 @@
+package com.kunbu.java.basic.jvm.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 按RecordSchema平铺在一个ByteBuffer里的定长记录数组，几百万条记录只有一个对象（加一个byte[]或一块堆外内存）
+ *
+ *      RecordArray orders = RecordArray.allocateDirect(schema, 1_000_000);
+ *      int i = orders.add();
+ *      orderId.set(orders, i, 10001L);
+ *      price.set(orders, i, 9.9);
+ *
+ * 堆内（allocate）：数据在byte[]里，GC只看到一个大数组，不需要逐个扫描记录
+ * 堆外（allocateDirect）：不占堆，适合比堆还大的数据；释放依赖DirectByteBuffer被GC回收
+ *
+ * 字节序用本机字节序，避免getLong/putLong时的字节交换；记录里的字段按自身大小对齐，读写都是对齐访问
+ *
+ * 容量受ByteBuffer限制：recordSize * capacity <= Integer.MAX_VALUE，更大的数据请分片
+ *
+ * 非线程安全
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 16:40
+ **/
+public class RecordArray {
+
+    private final RecordSchema schema;
+    private final int recordSize;
+    private final boolean direct;
+
+    /** 字段句柄直接访问 */
+    ByteBuffer buffer;
+    private int size;
+    private int capacity;
+
+    private RecordArray(RecordSchema schema, int capacity, boolean direct) {
+        this.schema = schema;
+        this.recordSize = schema.recordSize();
+        this.direct = direct;
+        this.capacity = capacity;
+        this.buffer = newBuffer(capacity);
+    }
+
+    public static RecordArray allocate(RecordSchema schema, int capacity) {
+        return new RecordArray(schema, capacity, false);
+    }
+
+    public static RecordArray allocateDirect(RecordSchema schema, int capacity) {
+        return new RecordArray(schema, capacity, true);
+    }
+
+    public RecordSchema schema() {
+        return schema;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * 追加一条全0的记录，容量不够时按1.5倍扩容（拷贝整个buffer）
+     *
+     * @return 新记录的下标
+     */
+    public int add() {
+        if (size == capacity) {
+            grow();
+        }
+        return size++;
+    }
+
+    /**
+     * 截断到newSize，被截掉的记录清零，之后add()得到的是全0记录
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) {
+            throw new IndexOutOfBoundsException("newSize: " + newSize + ", size: " + size);
+        }
+        for (int i = newSize * recordSize, end = size * recordSize; i < end; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        size = newSize;
+    }
+
+    /**
+     * 交换两条记录，排序等场景使用
+     */
+    public void swap(int i, int j) {
+        int a = position(i);
+        int b = position(j);
+        // 记录长度是最大字段的整数倍，按最大可能的宽度搬运
+        int k = 0;
+        for (; k + 8 <= recordSize; k += 8) {
+            long t = buffer.getLong(a + k);
+            buffer.putLong(a + k, buffer.getLong(b + k));
+            buffer.putLong(b + k, t);
+        }
+        for (; k < recordSize; k++) {
+            byte t = buffer.get(a + k);
+            buffer.put(a + k, buffer.get(b + k));
+            buffer.put(b + k, t);
+        }
+    }
+
+    /**
+     * 底层数据占用的字节数
+     */
+    public long footprint() {
+        return (long) capacity * recordSize;
+    }
+
+    int position(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index * recordSize;
+    }
+
+    private void grow() {
+        long newCapacity = Math.max(capacity + (capacity >> 1), 16L);
+        newCapacity = Math.min(newCapacity, Integer.MAX_VALUE / recordSize);
+        if (newCapacity <= capacity) {
+            throw new IllegalStateException("RecordArray is full: " + capacity + " records of " + recordSize + " bytes");
+        }
+        ByteBuffer bigger = newBuffer((int) newCapacity);
+        ByteBuffer src = buffer.duplicate();
+        src.clear().limit(size * recordSize);
+        bigger.put(src);
+        bigger.clear();
+        buffer = bigger;
+        capacity = (int) newCapacity;
+    }
+
+    private ByteBuffer newBuffer(int capacity) {
+        if (capacity < 0 || (long) capacity * recordSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity " + capacity + " * recordSize " + recordSize + " exceeds 2G");
+        }
+        int bytes = capacity * recordSize;
+        ByteBuffer b = direct ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        return b.order(ByteOrder.nativeOrder());
+    }
+
+    public static void main(String[] args) {
+        RecordSchema schema = RecordSchema.builder()
+                .addByte("status")
+                .addLong("orderId")
+                .addInt("quantity")
+                .addDouble("price")
+                .build();
+        System.out.println(schema.toPrintable());
+
+        RecordSchema.LongField orderId = schema.longField("orderId");
+        RecordSchema.IntField quantity = schema.intField("quantity");
+        RecordSchema.DoubleField price = schema.doubleField("price");
+        RecordSchema.ByteField status = schema.byteField("status");
+
+        int n = 1_000_000;
+        RecordArray orders = RecordArray.allocateDirect(schema, n);
+        for (int k = 0; k < n; k++) {
+            int i = orders.add();
+            orderId.set(orders, i, 10_000L + k);
+            quantity.set(orders, i, k % 7 + 1);
+            price.set(orders, i, (k % 100) * 0.5);
+            status.set(orders, i, (byte) (k % 3));
+        }
+        double total = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            if (status.get(orders, i) == 1) {
+                total += price.get(orders, i) * quantity.get(orders, i);
+            }
+        }
+        System.out.println("total: " + total);
+        System.out.println("records: " + orders.size() + ", bytes: " + orders.footprint()
+                + " (" + (double) orders.footprint() / orders.size() + " per record)");
+    }
+}
@@ -0,0 +1,391 @@
+package com.kunbu.java.basic.jvm.offheap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 定长记录的字段布局，配合RecordArray把大量小对象平铺到一个ByteBuffer里
+ *
+ * 和ObjectSize.main里记录的HotSpot字段重排规则一样，按字段大小降序排列（同大小按声明顺序），
+ * 每个字段都落在自身大小的整数倍上，字段之间不会有空隙；记录长度按最大字段对齐，保证下一条记录的字段也是对齐的
+ *
+ * 和对象数组相比，每条记录没有12字节对象头、没有8字节对齐补齐，也没有数组里那个4字节引用：
+ *      long + int + double + byte 的POJO是 12 + 8 + 4 + 8 + 1 = 33 -> 40字节，外加引用4字节
+ *      这里是 8 + 8 + 4 + 1 = 21 -> 24字节
+ *
+ *      RecordSchema schema = RecordSchema.builder()
+ *              .addLong("orderId").addInt("quantity").addDouble("price").addByte("status")
+ *              .build();
+ *      RecordSchema.LongField orderId = schema.longField("orderId");
+ *
+ * 字段句柄（XxxField）只保存偏移，读写时由RecordArray按 index * recordSize + offset 定位；
+ * 句柄是final字段不可变，JIT内联后和手写的 buffer.getLong(i * 24 + 0) 一样。
+ * 句柄记录所属的schema，用在别的schema的RecordArray上时抛IllegalArgumentException，而不是静默读写到错位的字节
+ * （一次引用比较，循环里JIT会提到循环外）
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 16:00
+ **/
+public final class RecordSchema {
+
+    public enum Type {
+        BYTE(1), BOOLEAN(1), SHORT(2), CHAR(2), INT(4), FLOAT(4), LONG(8), DOUBLE(8);
+
+        final int size;
+
+        Type(int size) {
+            this.size = size;
+        }
+    }
+
+    private final Map<String, Field> fields;
+    private final int recordSize;
+    private final int payloadSize;
+
+    private RecordSchema(Map<String, Field> fields, int recordSize, int payloadSize) {
+        this.fields = fields;
+        this.recordSize = recordSize;
+        this.payloadSize = payloadSize;
+        for (Field field : fields.values()) {
+            field.schema = this;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 一条记录占用的字节数（含末尾对齐）
+     */
+    public int recordSize() {
+        return recordSize;
+    }
+
+    public List<Field> fields() {
+        return new ArrayList<>(fields.values());
+    }
+
+    public ByteField byteField(String name) {
+        return (ByteField) field(name, Type.BYTE);
+    }
+
+    public BooleanField booleanField(String name) {
+        return (BooleanField) field(name, Type.BOOLEAN);
+    }
+
+    public ShortField shortField(String name) {
+        return (ShortField) field(name, Type.SHORT);
+    }
+
+    public CharField charField(String name) {
+        return (CharField) field(name, Type.CHAR);
+    }
+
+    public IntField intField(String name) {
+        return (IntField) field(name, Type.INT);
+    }
+
+    public FloatField floatField(String name) {
+        return (FloatField) field(name, Type.FLOAT);
+    }
+
+    public LongField longField(String name) {
+        return (LongField) field(name, Type.LONG);
+    }
+
+    public DoubleField doubleField(String name) {
+        return (DoubleField) field(name, Type.DOUBLE);
+    }
+
+    private Field field(String name, Type type) {
+        Field field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("No such field: " + name);
+        }
+        if (field.type != type) {
+            throw new IllegalArgumentException("Field " + name + " is " + field.type + ", not " + type);
+        }
+        return field;
+    }
+
+    /**
+     * 类似LayoutAnalyzer的输出：偏移、大小、字段
+     */
+    public String toPrintable() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%6s %5s  %-8s %s%n", "OFFSET", "SIZE", "TYPE", "NAME"));
+        for (Field f : fields.values()) {
+            sb.append(String.format("%6d %5d  %-8s %s%n", f.offset, f.type.size, f.type.name().toLowerCase(), f.name));
+        }
+        if (recordSize > payloadSize) {
+            sb.append(String.format("%6d %5d  %-8s %s%n", payloadSize, recordSize - payloadSize, "", "(alignment)"));
+        }
+        sb.append("Record size: ").append(recordSize).append(" bytes");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "RecordSchema" + fields.keySet() + ", recordSize=" + recordSize;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Type> declared = new LinkedHashMap<>();
+
+        public Builder addByte(String name) {
+            return add(name, Type.BYTE);
+        }
+
+        public Builder addBoolean(String name) {
+            return add(name, Type.BOOLEAN);
+        }
+
+        public Builder addShort(String name) {
+            return add(name, Type.SHORT);
+        }
+
+        public Builder addChar(String name) {
+            return add(name, Type.CHAR);
+        }
+
+        public Builder addInt(String name) {
+            return add(name, Type.INT);
+        }
+
+        public Builder addFloat(String name) {
+            return add(name, Type.FLOAT);
+        }
+
+        public Builder addLong(String name) {
+            return add(name, Type.LONG);
+        }
+
+        public Builder addDouble(String name) {
+            return add(name, Type.DOUBLE);
+        }
+
+        public Builder add(String name, Type type) {
+            if (declared.put(name, type) != null) {
+                throw new IllegalArgumentException("Duplicate field: " + name);
+            }
+            return this;
+        }
+
+        public RecordSchema build() {
+            if (declared.isEmpty()) {
+                throw new IllegalStateException("No fields");
+            }
+            List<Map.Entry<String, Type>> ordered = new ArrayList<>(declared.entrySet());
+            // 稳定排序，同大小保持声明顺序
+            Collections.sort(ordered, Comparator.comparingInt((Map.Entry<String, Type> e) -> e.getValue().size).reversed());
+            Map<String, Field> fields = new LinkedHashMap<>();
+            int offset = 0;
+            for (Map.Entry<String, Type> e : ordered) {
+                fields.put(e.getKey(), Field.create(e.getKey(), e.getValue(), offset));
+                offset += e.getValue().size;
+            }
+            int alignment = ordered.get(0).getValue().size;
+            int recordSize = (offset + alignment - 1) / alignment * alignment;
+            return new RecordSchema(fields, recordSize, offset);
+        }
+    }
+
+    /**
+     * 字段句柄
+     */
+    public abstract static class Field {
+
+        final String name;
+        final Type type;
+        final int offset;
+        /** 在RecordSchema构造器中赋值，经由schema的final字段发布 */
+        RecordSchema schema;
+
+        Field(String name, Type type, int offset) {
+            this.name = name;
+            this.type = type;
+            this.offset = offset;
+        }
+
+        static Field create(String name, Type type, int offset) {
+            switch (type) {
+                case BYTE:
+                    return new ByteField(name, offset);
+                case BOOLEAN:
+                    return new BooleanField(name, offset);
+                case SHORT:
+                    return new ShortField(name, offset);
+                case CHAR:
+                    return new CharField(name, offset);
+                case INT:
+                    return new IntField(name, offset);
+                case FLOAT:
+                    return new FloatField(name, offset);
+                case LONG:
+                    return new LongField(name, offset);
+                case DOUBLE:
+                    return new DoubleField(name, offset);
+                default:
+                    throw new IllegalArgumentException(String.valueOf(type));
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public Type type() {
+            return type;
+        }
+
+        public int offset() {
+            return offset;
+        }
+
+        public RecordSchema schema() {
+            return schema;
+        }
+
+        /**
+         * 字段在buffer中的位置
+         */
+        final int position(RecordArray records, int index) {
+            if (records.schema() != schema) {
+                throw new IllegalArgumentException("Field " + name + " belongs to " + schema + ", not " + records.schema());
+            }
+            return records.position(index) + offset;
+        }
+
+        @Override
+        public String toString() {
+            return name + ":" + type.name().toLowerCase() + "@" + offset;
+        }
+    }
+
+    public static final class ByteField extends Field {
+
+        ByteField(String name, int offset) {
+            super(name, Type.BYTE, offset);
+        }
+
+        public byte get(RecordArray records, int index) {
+            return records.buffer.get(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, byte value) {
+            records.buffer.put(position(records, index), value);
+        }
+    }
+
+    public static final class BooleanField extends Field {
+
+        BooleanField(String name, int offset) {
+            super(name, Type.BOOLEAN, offset);
+        }
+
+        public boolean get(RecordArray records, int index) {
+            return records.buffer.get(position(records, index)) != 0;
+        }
+
+        public void set(RecordArray records, int index, boolean value) {
+            records.buffer.put(position(records, index), (byte) (value ? 1 : 0));
+        }
+    }
+
+    public static final class ShortField extends Field {
+
+        ShortField(String name, int offset) {
+            super(name, Type.SHORT, offset);
+        }
+
+        public short get(RecordArray records, int index) {
+            return records.buffer.getShort(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, short value) {
+            records.buffer.putShort(position(records, index), value);
+        }
+    }
+
+    public static final class CharField extends Field {
+
+        CharField(String name, int offset) {
+            super(name, Type.CHAR, offset);
+        }
+
+        public char get(RecordArray records, int index) {
+            return records.buffer.getChar(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, char value) {
+            records.buffer.putChar(position(records, index), value);
+        }
+    }
+
+    public static final class IntField extends Field {
+
+        IntField(String name, int offset) {
+            super(name, Type.INT, offset);
+        }
+
+        public int get(RecordArray records, int index) {
+            return records.buffer.getInt(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, int value) {
+            records.buffer.putInt(position(records, index), value);
+        }
+    }
+
+    public static final class FloatField extends Field {
+
+        FloatField(String name, int offset) {
+            super(name, Type.FLOAT, offset);
+        }
+
+        public float get(RecordArray records, int index) {
+            return records.buffer.getFloat(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, float value) {
+            records.buffer.putFloat(position(records, index), value);
+        }
+    }
+
+    public static final class LongField extends Field {
+
+        LongField(String name, int offset) {
+            super(name, Type.LONG, offset);
+        }
+
+        public long get(RecordArray records, int index) {
+            return records.buffer.getLong(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, long value) {
+            records.buffer.putLong(position(records, index), value);
+        }
+    }
+
+    public static final class DoubleField extends Field {
+
+        DoubleField(String name, int offset) {
+            super(name, Type.DOUBLE, offset);
+        }
+
+        public double get(RecordArray records, int index) {
+            return records.buffer.getDouble(position(records, index));
+        }
+
+        public void set(RecordArray records, int index, double value) {
+            records.buffer.putDouble(position(records, index), value);
+        }
+    }
+}
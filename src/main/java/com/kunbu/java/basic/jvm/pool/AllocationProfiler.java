@@ -0,0 +1,125 @@
+package com.kunbu.java.basic.jvm.pool;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 按调用点统计内存分配：次数和字节数
+ *
+ * 用的是com.sun.management.ThreadMXBean.getThreadAllocatedBytes(tid)，即当前线程TLAB累计分配的字节数，
+ * 调用前后相减就是这段代码分配的量，开销很小，不需要JFR或agent。
+ * 注意：结果要被使用（这里存入sink数组），否则JIT逃逸分析可能把分配整个消除，测出来是0
+ *
+ * StringPoolTest里比较的几种创建方式见main()，更精确的吞吐/分配对比见benchmark模块StringCreationBenchmark（-prof gc）
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-20 09:30
+ **/
+public class AllocationProfiler {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final Map<String, Site> sites = new LinkedHashMap<>();
+    private final Object[] sink = new Object[1024];
+
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * 当前线程累计分配的字节数，不支持时返回-1
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREAD_MX_BEAN == null) {
+            return -1L;
+        }
+        return THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * 执行iterations次action，统计到site名下
+     *
+     * @return 本次平均每次调用分配的字节数
+     */
+    public double profile(String site, int iterations, Supplier<?> action) {
+        // 先跑一轮让JIT编译，否则解释执行的分配和编译后不一样
+        for (int i = 0; i < iterations; i++) {
+            sink[i & (sink.length - 1)] = action.get();
+        }
+        long before = currentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            sink[i & (sink.length - 1)] = action.get();
+        }
+        long bytes = currentThreadAllocatedBytes() - before;
+        synchronized (sites) {
+            sites.computeIfAbsent(site, Site::new).record(iterations, bytes);
+        }
+        return (double) bytes / iterations;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %12s %16s %12s%n", "SITE", "CALLS", "BYTES", "BYTES/CALL"));
+        synchronized (sites) {
+            for (Site s : sites.values()) {
+                sb.append(String.format("%-32s %12d %16d %12.1f%n", s.name, s.calls, s.bytes, (double) s.bytes / s.calls));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported()) {
+                sunBean.setThreadAllocatedMemoryEnabled(true);
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    static final class Site {
+
+        final String name;
+        long calls;
+        long bytes;
+
+        Site(String name) {
+            this.name = name;
+        }
+
+        void record(long calls, long bytes) {
+            this.calls += calls;
+            this.bytes += bytes;
+        }
+    }
+
+    /**
+     * StringPoolTest/StringA/StringB中几种创建字符串的方式
+     */
+    public static void main(String[] args) {
+        AllocationProfiler profiler = new AllocationProfiler();
+        int n = 1_000_000;
+        int[] counter = {0};
+        String a = "kun";
+        String b = "bu";
+
+        profiler.profile("literal \"literal\"", n, () -> "literal");
+        profiler.profile("new String(\"abc\")", n, () -> new String("abc"));
+        profiler.profile("String.valueOf(int)", n, () -> String.valueOf(counter[0]++ & 1023));
+        profiler.profile("\"33\" + \"44\" (constant)", n, () -> "33" + "44");
+        profiler.profile("a + b", n, () -> a + b);
+        profiler.profile("StringBuilder.append", n, () -> new StringBuilder().append(a).append(b).toString());
+        profiler.profile("sized StringBuilder", n, () -> new StringBuilder(a.length() + b.length()).append(a).append(b).toString());
+        profiler.profile("String.join", n, () -> String.join("", a, b));
+        profiler.profile("String.concat", n, () -> a.concat(b));
+        profiler.profile("(a + b).intern()", n, () -> (a + b).intern());
+
+        System.out.println(profiler.report());
+    }
+}
@@ -0,0 +1,193 @@
+package com.kunbu.java.basic.jvm.pool;
+
+import com.kunbu.java.basic.jvm.ObjectSize.ObjectGraphSizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 集合元素在堆中的分布：按遍历顺序依次访问元素时，内存是连续推进还是到处跳
+ *
+ * 对每个元素取地址（ObjectAddressUtil，支持压缩/未压缩指针）和浅大小（ObjectGraphSizer.shallowSize），统计：
+ *      1.步长直方图：相邻两个元素的地址差，按 <=64B、<=256B、<=4K、<=64K、<=1M、>1M 分桶，向前/向后分开
+ *      2.顺序比例：步长为正且不超过前一个元素大小+对齐的比例，即紧挨着前一个元素
+ *      3.缓存行：遍历实际碰到的缓存行数（相邻元素落在同一行不重复计），对比元素总字节数至少需要的行数；
+ *        以及跨行的元素个数（一个对象被切在两行里，读它要加载两行）
+ *
+ * 用法：改造前后各跑一次，看数组化/重建之后顺序比例和缓存行数是否真的变好
+ *
+ *      LocalityAnalyzer.analyze(list).print();
+ *
+ * 注意：只看元素本身，不看元素引用的对象；统计期间发生GC时地址会变，会自动重读，多次失败则报告中标出
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-21 16:00
+ **/
+public class LocalityAnalyzer {
+
+    public static final int CACHE_LINE = 64;
+
+    /** 步长分桶上限 */
+    private static final long[] BUCKETS = {64, 256, 4 << 10, 64 << 10, 1 << 20, Long.MAX_VALUE};
+    private static final String[] BUCKET_NAMES = {"<=64B", "<=256B", "<=4K", "<=64K", "<=1M", ">1M"};
+    private static final int RETRY = 3;
+
+    public static Report analyze(Collection<?> elements) {
+        return analyze(elements.toArray());
+    }
+
+    public static Report analyze(Object[] elements) {
+        int n = elements.length;
+        long[] addresses = new long[n];
+        long[] sizes = new long[n];
+        for (int i = 0; i < n; i++) {
+            sizes[i] = elements[i] == null ? 0 : ObjectGraphSizer.shallowSize(elements[i]);
+        }
+        boolean stable = false;
+        for (int attempt = 0; attempt < RETRY && !stable; attempt++) {
+            ObjectAddressUtil.addressesOf(elements, addresses);
+            // 首尾再读一次，没变说明读的过程中大概率没有发生移动对象的GC
+            stable = n == 0 || (addresses[0] == ObjectAddressUtil.readAddress(elements, 0)
+                    && addresses[n - 1] == ObjectAddressUtil.readAddress(elements, n - 1));
+        }
+
+        Report report = new Report(n, stable);
+        long lastLine = -1;
+        for (int i = 0; i < n; i++) {
+            if (elements[i] == null) {
+                report.nulls++;
+                continue;
+            }
+            long address = addresses[i];
+            long size = sizes[i];
+            report.totalBytes += size;
+
+            long firstLine = address / CACHE_LINE;
+            long endLine = (address + size - 1) / CACHE_LINE;
+            if (endLine != firstLine) {
+                report.straddling++;
+            }
+            // 和上一个元素的最后一行相同则不重复计
+            report.linesTouched += endLine - firstLine + 1 - (firstLine == lastLine ? 1 : 0);
+            lastLine = endLine;
+
+            if (i > 0 && elements[i - 1] != null) {
+                long stride = address - addresses[i - 1];
+                long previousSize = ObjectGraphSizer.shallowSize(elements[i - 1]);
+                if (stride > 0 && stride <= previousSize + ObjectAddressUtil.OBJECT_ALIGNMENT) {
+                    report.adjacent++;
+                }
+                int bucket = bucket(Math.abs(stride));
+                if (stride >= 0) {
+                    report.forward[bucket]++;
+                } else {
+                    report.backward[bucket]++;
+                }
+                report.strides++;
+                report.absStrideSum += Math.abs(stride);
+            }
+        }
+        return report;
+    }
+
+    private static int bucket(long stride) {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            if (stride <= BUCKETS[i]) {
+                return i;
+            }
+        }
+        return BUCKETS.length - 1;
+    }
+
+    public static final class Report {
+
+        public final int count;
+        /** false表示统计期间地址一直在变，结果不可信 */
+        public final boolean stable;
+        public int nulls;
+        public long totalBytes;
+        public long linesTouched;
+        public int straddling;
+        public int adjacent;
+        public int strides;
+        public long absStrideSum;
+        public final int[] forward = new int[BUCKETS.length];
+        public final int[] backward = new int[BUCKETS.length];
+
+        Report(int count, boolean stable) {
+            this.count = count;
+            this.stable = stable;
+        }
+
+        /**
+         * 元素紧密排列时需要的最少缓存行数
+         */
+        public long minimumLines() {
+            return (totalBytes + CACHE_LINE - 1) / CACHE_LINE;
+        }
+
+        public double adjacentRatio() {
+            return strides == 0 ? 0 : (double) adjacent / strides;
+        }
+
+        public long averageStride() {
+            return strides == 0 ? 0 : absStrideSum / strides;
+        }
+
+        public void print() {
+            System.out.println(this);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(ObjectAddressUtil.describe()).append('\n');
+            sb.append(String.format("elements=%d, nulls=%d, bytes=%d, stable=%s%n", count, nulls, totalBytes, stable));
+            sb.append(String.format("adjacent=%.1f%%, avg |stride|=%d B%n", adjacentRatio() * 100, averageStride()));
+            sb.append(String.format("cache lines touched=%d, minimum=%d (x%.2f), straddling objects=%d%n",
+                    linesTouched, minimumLines(), minimumLines() == 0 ? 0 : (double) linesTouched / minimumLines(),
+                    straddling));
+            sb.append(String.format("%-8s %10s %10s%n", "|stride|", "forward", "backward"));
+            for (int i = 0; i < BUCKETS.length; i++) {
+                sb.append(String.format("%-8s %10d %10d%n", BUCKET_NAMES[i], forward[i], backward[i]));
+            }
+            return sb.toString();
+        }
+    }
+
+    public static void main(String[] args) {
+        int n = 100_000;
+        List<Long> list = new ArrayList<>(n);
+        for (long i = 0; i < n; i++) {
+            // 超出Long缓存范围，每个都是新对象，按分配顺序连续排列
+            list.add(i + 1000);
+        }
+        System.out.println("== ArrayList<Long>, allocation order");
+        analyze(list).print();
+
+        Collections.shuffle(list);
+        System.out.println("== after shuffle (references reordered, objects not moved)");
+        analyze(list).print();
+
+        // 按当前遍历顺序重新创建元素，新对象按遍历顺序连续分配
+        // 值都 >= 1000，不在Long.valueOf的缓存范围[-128, 127]内，每次都会分配新对象，不需要已废弃的new Long()
+        List<Long> rebuilt = new ArrayList<>(n);
+        for (Long value : list) {
+            rebuilt.add(Long.valueOf(value.longValue()));
+        }
+        System.out.println("== rebuilt in iteration order");
+        analyze(rebuilt).print();
+
+        Map<Long, Long> map = new HashMap<>();
+        for (Long value : list) {
+            map.put(value, value);
+        }
+        System.out.println("== HashMap nodes, iteration order = bucket order");
+        analyze(map.entrySet()).print();
+    }
+}
@@ -1,22 +1,84 @@
 package com.kunbu.java.basic.jvm.pool;
 
+import com.sun.management.HotSpotDiagnosticMXBean;
 import org.openjdk.jol.info.GraphLayout;
 import org.openjdk.jol.vm.VM;
+import org.openjdk.jol.vm.VirtualMachine;
 import sun.misc.Unsafe;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 
 /**
+ * 对象地址
+ *
+ * 引用在数组里的存储宽度（Object[]的arrayIndexScale）：
+ *      8：64位未压缩，存的就是地址
+ *      4：32位JVM，或64位开启压缩指针（UseCompressedOops），地址 = base + (narrow << shift)
+ *
+ * 压缩指针的三种模式（由堆的位置和大小决定，和JDK版本无关）：
+ *      unscaled    堆在4G以下，base=0，shift=0
+ *      zero-based  堆在32G以下，base=0，shift=log2(ObjectAlignmentInBytes)
+ *      heap-based  base为堆起始地址，shift=log2(ObjectAlignmentInBytes)
+ *
+ * 探测：
+ *      1.对齐值从HotSpotDiagnosticMXBean读ObjectAlignmentInBytes
+ *      2.shift：连续分配一批小对象，narrow值全是对齐值的倍数说明没有移位（unscaled，base一定是0），否则shift=log2(对齐值)
+ *      3.base：有移位时用jol的VM.current().addressOf()给出的真实地址反推，jol不可用时按0处理（BASE_KNOWN=false）
+ *
+ * base不影响两个对象地址的差值，也不影响对缓存行的判断（base按页对齐），所以base未知时LocalityAnalyzer的结果不受影响
+ *
+ * PS：地址只在两次GC之间有效，GC会移动对象
+ *
  * @project: java-basic
  * @author: kunbu
  * @create: 2020-01-14 10:25
  **/
 public class ObjectAddressUtil {
 
-    /**
-     * auto detect if possible.
-     **/
-    static final boolean is64bit = true;
+    private static final Unsafe UNSAFE = getUnsafe();
+    private static final long ARRAY_BASE = UNSAFE.arrayBaseOffset(Object[].class);
+
+    /** 数组中一个引用占的字节数，4或8 */
+    public static final int REFERENCE_SIZE = UNSAFE.arrayIndexScale(Object[].class);
+    public static final boolean IS_64BIT = !"32".equals(System.getProperty("sun.arch.data.model"));
+    public static final boolean COMPRESSED_OOPS = IS_64BIT && REFERENCE_SIZE == 4;
+    public static final int OBJECT_ALIGNMENT;
+    public static final int OOP_SHIFT;
+    public static final long OOP_BASE;
+    /** base是否确实探测到（而不是假定为0） */
+    public static final boolean BASE_KNOWN;
+    /** 探测方式，打印用 */
+    public static final String DETECTED_BY;
+
+    static {
+        int alignment = 8;
+        int shift = 0;
+        long base = 0;
+        boolean baseKnown = true;
+        String detectedBy = "reference size";
+        if (COMPRESSED_OOPS) {
+            alignment = vmOptionInt("ObjectAlignmentInBytes", 8);
+            if (isUnscaled(alignment)) {
+                detectedBy = "narrow oop probe";
+            } else {
+                shift = Integer.numberOfTrailingZeros(alignment);
+                Long jolBase = baseByJol(shift);
+                if (jolBase != null) {
+                    base = jolBase;
+                    detectedBy = "jol";
+                } else {
+                    baseKnown = false;
+                    detectedBy = "narrow oop probe";
+                }
+            }
+        }
+        OBJECT_ALIGNMENT = alignment;
+        OOP_SHIFT = shift;
+        OOP_BASE = base;
+        BASE_KNOWN = baseKnown;
+        DETECTED_BY = detectedBy;
+    }
 
     public static void printAddressByJDK(String label, Object obj) {
         //通过jol工具包打印对象的地址
@@ -24,33 +86,112 @@ public class ObjectAddressUtil {
         System.out.println(GraphLayout.parseInstance(obj).toPrintable());
     }
 
+    /**
+     * 依次打印和前一个对象的地址差
+     */
     public static void printAddress(Object... objects) {
-        Unsafe unsafe = getUnsafe();
-        System.out.print("address:         0x");
-        long last = 0;
-        int offset = unsafe.arrayBaseOffset(objects.getClass());
-        int scale = unsafe.arrayIndexScale(objects.getClass());
-        switch (scale) {
-            case 4:
-                long factor = is64bit ? 8 : 1;
-                final long i1 = (unsafe.getInt(objects, offset) & 0xFFFFFFFFL) * factor;
-                last = i1;
-                for (int i = 1; i < objects.length; i++) {
-                    final long i2 = (unsafe.getInt(objects, offset + i * 4) & 0xFFFFFFFFL) * factor;
-                    if (i2 > last) {
-                        System.out.print(", +" + Long.toHexString(i2 - last));
-                    } else {
-                        System.out.print(", -" + Long.toHexString(last - i2));
-                    }
-                    last = i2;
+        long[] addresses = new long[objects.length];
+        addressesOf(objects, addresses);
+        StringBuilder sb = new StringBuilder("address:         0x");
+        if (addresses.length > 0) {
+            sb.append(Long.toHexString(addresses[0]));
+        }
+        for (int i = 1; i < addresses.length; i++) {
+            long delta = addresses[i] - addresses[i - 1];
+            sb.append(delta >= 0 ? ", +" : ", -").append(Long.toHexString(Math.abs(delta)));
+        }
+        System.out.println(sb);
+    }
+
+    public static long addressOf(Object o) {
+        Object[] holder = {o};
+        return readAddress(holder, 0);
+    }
+
+    /**
+     * 读出数组中每个元素的地址，写到addresses
+     */
+    public static void addressesOf(Object[] objects, long[] addresses) {
+        for (int i = 0; i < objects.length; i++) {
+            addresses[i] = readAddress(objects, i);
+        }
+    }
+
+    /**
+     * 数组第index个元素引用的对象地址
+     */
+    static long readAddress(Object[] array, int index) {
+        long offset = ARRAY_BASE + (long) index * REFERENCE_SIZE;
+        if (REFERENCE_SIZE == 8) {
+            return UNSAFE.getLong(array, offset);
+        }
+        long narrow = UNSAFE.getInt(array, offset) & 0xFFFFFFFFL;
+        if (!COMPRESSED_OOPS) {
+            return narrow;
+        }
+        return narrow == 0 ? 0 : OOP_BASE + (narrow << OOP_SHIFT);
+    }
+
+    public static String describe() {
+        if (!COMPRESSED_OOPS) {
+            return (IS_64BIT ? "64-bit" : "32-bit") + ", reference=" + REFERENCE_SIZE + "B, uncompressed";
+        }
+        return "64-bit, reference=4B, compressed oops: shift=" + OOP_SHIFT
+                + ", base=" + (BASE_KNOWN ? "0x" + Long.toHexString(OOP_BASE) : "unknown(0 assumed)")
+                + ", alignment=" + OBJECT_ALIGNMENT + ", detected by " + DETECTED_BY;
+    }
+
+    /**
+     * 用jol给出的真实地址反推base，jol不可用或结果对不上时返回null
+     *
+     * 不直接用jol推断shift：jol 0.9在JDK9+上连不上Serviceability Agent时按shift=3猜，堆在4G以下（unscaled）时是错的
+     */
+    private static Long baseByJol(int shift) {
+        try {
+            VirtualMachine vm = VM.current();
+            Object[] holder = new Object[1];
+            long base = -1;
+            // 两个对象算出的base一致才认为可信，也排除了中间发生GC的情况
+            for (int i = 0; i < 2; i++) {
+                Object probe = new Object();
+                holder[0] = probe;
+                long narrow = UNSAFE.getInt(holder, ARRAY_BASE) & 0xFFFFFFFFL;
+                long b = vm.addressOf(probe) - (narrow << shift);
+                if (b < 0 || (b & 0xFFF) != 0 || (base >= 0 && b != base)) {
+                    return null;
                 }
-                break;
-            case 8:
-                throw new AssertionError("Not supported");
-//            default:
-//                break;
+                base = b;
+            }
+            return base;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static int vmOptionInt(String name, int defaultValue) {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Integer.parseInt(bean.getVMOption(name).getValue());
+        } catch (Throwable e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * unscaled模式下narrow就是地址，一定是对齐值的倍数；移位模式下连续分配的小对象narrow值相差不到一个对齐值，不可能都是倍数
+     */
+    private static boolean isUnscaled(int alignment) {
+        Object[] probes = new Object[64];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = new Object();
+        }
+        for (int i = 0; i < probes.length; i++) {
+            long narrow = UNSAFE.getInt(probes, ARRAY_BASE + (long) i * 4) & 0xFFFFFFFFL;
+            if (narrow % alignment != 0) {
+                return false;
+            }
         }
-        System.out.println();
+        return true;
     }
 
     private static Unsafe getUnsafe() {
@@ -0,0 +1,150 @@
+package com.kunbu.java.basic.jvm.pool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 应用层的字符串去重池，代替String.intern()
+ *
+ * String.intern()的问题（见StringPoolTest）：StringTable是JVM里固定桶数的哈希表（JDK7u40前默认1009，之后60013，-XX:StringTableSize调整），
+ * 不会扩容，驻留的字符串多了以后链表变长，intern越来越慢；老版本fastjson对所有key调用intern就踩了这个坑。而且驻留的字符串只能等GC扫StringTable时回收。
+ *
+ * 这里的做法：
+ *      1.按hash分段（段数为2的幂），每段一个按访问顺序排列的LinkedHashMap，段内加锁，不同段之间互不影响
+ *      2.每段有容量上限，超出时淘汰最久未访问的（LRU），总内存有上界
+ *      3.命中、未命中、淘汰次数用LongAdder统计
+ *
+ * 注意：被淘汰后同一内容可能返回不同的实例，所以只能用来省内存，不能像intern那样用==比较
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-18 17:00
+ **/
+public class StringInterner {
+
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public StringInterner(int maxSize) {
+        this(maxSize, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public StringInterner(int maxSize, int concurrency) {
+        if (maxSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("maxSize=" + maxSize + ", concurrency=" + concurrency);
+        }
+        int count = 1;
+        while (count < concurrency && count < maxSize) {
+            count <<= 1;
+        }
+        segments = new Segment[count];
+        segmentMask = count - 1;
+        int perSegment = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment, evictions);
+        }
+    }
+
+    /**
+     * 返回池中和s内容相同的实例，没有则放入s本身
+     */
+    public String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        Segment segment = segmentFor(s);
+        synchronized (segment) {
+            String canonical = segment.get(s);
+            if (canonical != null) {
+                hits.increment();
+                return canonical;
+            }
+            segment.put(s, s);
+        }
+        misses.increment();
+        return s;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private Segment segmentFor(String s) {
+        int h = s.hashCode();
+        // 高位扰动，和HashMap.hash()一样，避免只用到低位
+        h ^= h >>> 16;
+        return segments[h & segmentMask];
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + ", hitRate=" + String.format("%.2f", getHitRate());
+    }
+
+    static final class Segment extends LinkedHashMap<String, String> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Segment(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public static void main(String[] args) {
+        StringInterner interner = new StringInterner(1000);
+        for (int i = 0; i < 100_000; i++) {
+            // 取模制造重复，new String保证每次都是不同实例
+            String key = new String("key-" + (i % 500));
+            interner.intern(key);
+        }
+        System.out.println(interner);
+
+        String a = interner.intern(new String("hello"));
+        String b = interner.intern(new String("hello"));
+        System.out.println("a == b：" + (a == b));
+    }
+}
@@ -18,6 +18,7 @@ package com.kunbu.java.basic.jvm.pool;
  *
  *
  *  2. 全局驻留字符串常量池（string Pool / string Literal Pool） TODO 池的大小及实现 老版本是1009 老版本fastJson就是因为过度使用intern而造成性能问题
+ *      （应用层有界去重可以用StringInterner代替intern）
  *      类加载期间，经过加载，验证/准备阶段之后，在堆中（JDK1.7）的一块区域生成字符串对象实例，然后将该实例的引用值存到全局字符串池中（intern注释中提到的pool）。
  *
  *      在HotSpot VM里实现的string pool功能的是一个StringTable类，它是一个哈希表，里面存的是驻留字符串（字面量）的引用，
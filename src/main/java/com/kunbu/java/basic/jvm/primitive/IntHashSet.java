@@ -0,0 +1,188 @@
+package com.kunbu.java.basic.jvm.primitive;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * int的开放寻址哈希集合，代替Set<Integer>，实现同LongHashSet
+ *
+ * 非线程安全
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 11:20
+ **/
+public class IntHashSet {
+
+    private final float loadFactor;
+
+    private int[] keys;
+    private int mask;
+    private int shift;
+    private int assigned;
+    private int resizeAt;
+    private boolean hasZeroKey;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize) {
+        this(expectedSize, PrimitiveHash.DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntHashSet(int expectedSize, float loadFactor) {
+        PrimitiveHash.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveHash.tableSize(expectedSize, loadFactor));
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            int k = keys[i];
+            if (k == key) {
+                return true;
+            }
+            if (k == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * @return 是否新增
+     */
+    public boolean add(int key) {
+        if (key == 0) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            return added;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            int k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                if (++assigned > resizeAt) {
+                    rehash(PrimitiveHash.nextCapacity(keys.length));
+                }
+                return true;
+            }
+            if (k == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * backward shift删除，同LongIntHashMap.remove
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            return removed;
+        }
+        int gap = slot(key);
+        for (; ; ) {
+            int k = keys[gap];
+            if (k == 0) {
+                return false;
+            }
+            if (k == key) {
+                break;
+            }
+            gap = (gap + 1) & mask;
+        }
+        int j = gap;
+        for (; ; ) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            int home = slot(k);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        assigned--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        assigned = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0);
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                consumer.accept(k);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int slot(int key) {
+        return (key * PrimitiveHash.INT_PHI) >>> shift;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = PrimitiveHash.resizeAt(capacity, loadFactor);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        allocate(capacity);
+        for (int k : oldKeys) {
+            if (k != 0) {
+                int i = slot(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.kunbu.java.basic.jvm.primitive;
+
+import java.util.Arrays;
+
+/**
+ * int -> int 的开放寻址哈希表，代替Map<Integer, Integer>，实现同LongIntHashMap
+ *
+ * 非线程安全
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 10:40
+ **/
+public class IntIntHashMap {
+
+    public interface EntryConsumer {
+
+        void accept(int key, int value);
+    }
+
+    private final float loadFactor;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    /** 表中占用的槽数，不含0 key */
+    private int assigned;
+    private int resizeAt;
+
+    /** 0用来标记空槽，key为0的值单独存 */
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        this(expectedSize, PrimitiveHash.DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntIntHashMap(int expectedSize, float loadFactor) {
+        PrimitiveHash.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveHash.tableSize(expectedSize, loadFactor));
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public int get(int key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * @return 是否新增了key（false表示覆盖了原来的值）
+     */
+    public boolean put(int key, int value) {
+        if (key == 0) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            zeroValue = value;
+            return added;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            int k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = value;
+                if (++assigned > resizeAt) {
+                    rehash(PrimitiveHash.nextCapacity(keys.length));
+                }
+                return true;
+            }
+            if (k == key) {
+                values[i] = value;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 计数场景：不存在时按0累加
+     *
+     * @return 累加后的值
+     */
+    public int addTo(int key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            int k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = delta;
+                if (++assigned > resizeAt) {
+                    rehash(PrimitiveHash.nextCapacity(keys.length));
+                }
+                return delta;
+            }
+            if (k == key) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 删除后把同一探测链上后面的元素往前挪（backward shift），不留墓碑，删得再多查找也不会变慢
+     */
+    public boolean remove(int key) {
+        if (key == 0) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            zeroValue = 0;
+            return removed;
+        }
+        int gap = indexOf(key);
+        if (gap < 0) {
+            return false;
+        }
+        int j = gap;
+        for (; ; ) {
+            j = (j + 1) & mask;
+            int k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            // k的理想位置到j的距离 >= gap到j的距离，说明gap在k的探测路径上，可以前移
+            int home = slot(k);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        assigned--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        assigned = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        int[] ks = keys;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0) {
+                consumer.accept(ks[i], values[i]);
+            }
+        }
+    }
+
+    public int[] keys() {
+        int[] result = new int[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (int k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 底层表的长度，即已分配的槽数
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int slot(int key) {
+        return (key * PrimitiveHash.INT_PHI) >>> shift;
+    }
+
+    private int indexOf(int key) {
+        int i = slot(key);
+        for (; ; ) {
+            int k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = PrimitiveHash.resizeAt(capacity, loadFactor);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            int k = oldKeys[j];
+            if (k != 0) {
+                int i = slot(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
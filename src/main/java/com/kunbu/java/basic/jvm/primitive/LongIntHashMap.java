@@ -0,0 +1,254 @@
+package com.kunbu.java.basic.jvm.primitive;
+
+import java.util.Arrays;
+
+/**
+ * long -> int 的开放寻址哈希表，代替Map<Long, Integer>
+ *
+ * HashMap<Long, Integer>每个entry（压缩指针下）：Node(32B) + Long(24B) + Integer(16B) + 桶数组里的引用，
+ * 约80B，真正的数据只有12B（见CollectionFootprint）；这里key、value各一个基本类型数组，
+ * 负载因子0.75时每个entry占16~32B（扩容前后负载在0.375~0.75之间）
+ *
+ *      1.线性探测，表长为2的幂，下标用Fibonacci哈希（PrimitiveHash）
+ *      2.0作为空槽标记，key为0时单独存在hasZeroKey/zeroValue里
+ *      3.删除用backward shift，不留墓碑
+ *      4.取值没有null可以表示"不存在"，由调用方传入默认值：get(key, defaultValue)
+ *
+ * 非线程安全
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 10:30
+ **/
+public class LongIntHashMap {
+
+    public interface EntryConsumer {
+
+        void accept(long key, int value);
+    }
+
+    private final float loadFactor;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    /** 表中占用的槽数，不含0 key */
+    private int assigned;
+    private int resizeAt;
+
+    /** 0用来标记空槽，key为0的值单独存 */
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        this(expectedSize, PrimitiveHash.DEFAULT_LOAD_FACTOR);
+    }
+
+    public LongIntHashMap(int expectedSize, float loadFactor) {
+        PrimitiveHash.checkLoadFactor(loadFactor);
+        this.loadFactor = loadFactor;
+        allocate(PrimitiveHash.tableSize(expectedSize, loadFactor));
+    }
+
+    public int size() {
+        return assigned + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    public int get(long key, int defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * @return 是否新增了key（false表示覆盖了原来的值）
+     */
+    public boolean put(long key, int value) {
+        if (key == 0) {
+            boolean added = !hasZeroKey;
+            hasZeroKey = true;
+            zeroValue = value;
+            return added;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            long k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = value;
+                if (++assigned > resizeAt) {
+                    rehash(PrimitiveHash.nextCapacity(keys.length));
+                }
+                return true;
+            }
+            if (k == key) {
+                values[i] = value;
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 计数场景：不存在时按0累加
+     *
+     * @return 累加后的值
+     */
+    public int addTo(long key, int delta) {
+        if (key == 0) {
+            zeroValue = hasZeroKey ? zeroValue + delta : delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+        int i = slot(key);
+        for (; ; ) {
+            long k = keys[i];
+            if (k == 0) {
+                keys[i] = key;
+                values[i] = delta;
+                if (++assigned > resizeAt) {
+                    rehash(PrimitiveHash.nextCapacity(keys.length));
+                }
+                return delta;
+            }
+            if (k == key) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * 删除后把同一探测链上后面的元素往前挪（backward shift），不留墓碑，删得再多查找也不会变慢
+     */
+    public boolean remove(long key) {
+        if (key == 0) {
+            boolean removed = hasZeroKey;
+            hasZeroKey = false;
+            zeroValue = 0;
+            return removed;
+        }
+        int gap = indexOf(key);
+        if (gap < 0) {
+            return false;
+        }
+        int j = gap;
+        for (; ; ) {
+            j = (j + 1) & mask;
+            long k = keys[j];
+            if (k == 0) {
+                break;
+            }
+            // k的理想位置到j的距离 >= gap到j的距离，说明gap在k的探测路径上，可以前移
+            int home = slot(k);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = 0;
+        assigned--;
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, 0);
+        assigned = 0;
+        hasZeroKey = false;
+        zeroValue = 0;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        long[] ks = keys;
+        for (int i = 0; i < ks.length; i++) {
+            if (ks[i] != 0) {
+                consumer.accept(ks[i], values[i]);
+            }
+        }
+    }
+
+    public long[] keys() {
+        long[] result = new long[size()];
+        int n = 0;
+        if (hasZeroKey) {
+            result[n++] = 0;
+        }
+        for (long k : keys) {
+            if (k != 0) {
+                result[n++] = k;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 底层表的长度，即已分配的槽数
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * PrimitiveHash.LONG_PHI) >>> shift);
+    }
+
+    private int indexOf(long key) {
+        int i = slot(key);
+        for (; ; ) {
+            long k = keys[i];
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = PrimitiveHash.resizeAt(capacity, loadFactor);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != 0) {
+                int i = slot(k);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
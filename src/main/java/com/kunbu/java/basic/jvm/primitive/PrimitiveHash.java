@@ -0,0 +1,55 @@
+package com.kunbu.java.basic.jvm.primitive;
+
+/**
+ * 开放寻址表的公共计算
+ *
+ * 下标用Fibonacci哈希：key * 2^w/φ 之后取高位。乘法把低位的差异扩散到高位，
+ * 连续的id、按8对齐的地址这类低位规律明显的key也能均匀分布，不需要HashMap那样的扰动函数
+ *
+ * @project: java-basic
+ * @author: kunbu
+ * @create: 2026-10-22 10:00
+ **/
+final class PrimitiveHash {
+
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+    static final int INT_PHI = 0x9E3779B9;
+    static final long LONG_PHI = 0x9E3779B97F4A7C15L;
+    static final int MIN_CAPACITY = 4;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private PrimitiveHash() {
+    }
+
+    static void checkLoadFactor(float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("loadFactor must be in (0, 1): " + loadFactor);
+        }
+    }
+
+    /**
+     * 放下expectedSize个元素不需要扩容的表长度，2的幂
+     */
+    static int tableSize(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize: " + expectedSize);
+        }
+        long required = (long) Math.ceil(expectedSize / (double) loadFactor) + 1;
+        if (required > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many elements: " + expectedSize);
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) required - 1) << 1);
+    }
+
+    static int resizeAt(int capacity, float loadFactor) {
+        // 至少留一个空槽，否则查找不存在的key会死循环
+        return Math.min(capacity - 1, (int) Math.ceil(capacity * loadFactor));
+    }
+
+    static int nextCapacity(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Table is full: " + capacity);
+        }
+        return capacity << 1;
+    }
+}